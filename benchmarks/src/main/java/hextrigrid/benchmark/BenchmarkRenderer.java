@@ -0,0 +1,116 @@
+package hextrigrid.benchmark;
+
+import hextrigrid.grid.Edge;
+import hextrigrid.grid.Tile;
+import hextrigrid.grid.Vertex;
+import hextrigrid.grid.composite.CompositeGrid;
+import hextrigrid.grid.composite.CompositeGridRenderer;
+import hextrigrid.grid.composite.RenderStyle;
+
+import java.awt.*;
+
+/**
+ * Renderer whose hooks allocate nothing: colours, strokes, styles and the hexagon shape are created once,
+ * so allocation rates measured by the GC profiler belong to the rendering code itself.
+ */
+class BenchmarkRenderer extends CompositeGridRenderer {
+    private static final Color[] PALETTE = {
+            new Color(0x4E79A7), new Color(0xF28E2B), new Color(0xE15759), new Color(0x76B7B2),
+            new Color(0x59A14F), new Color(0xEDC948), new Color(0xB07AA1), new Color(0xFF9DA7)
+    };
+    private static final BasicStroke INTERNAL_EDGE_STROKE = new BasicStroke(1.0f);
+    private static final BasicStroke EXTERNAL_EDGE_STROKE = new BasicStroke(3.0f);
+    private static final BasicStroke VERTEX_STROKE = new BasicStroke(1.5f);
+    private static final RenderStyle[] TILE_STYLES = new RenderStyle[PALETTE.length];
+    private static final RenderStyle INTERNAL_EDGE_STYLE = RenderStyle.stroke(Color.darkGray, INTERNAL_EDGE_STROKE);
+    private static final RenderStyle EXTERNAL_EDGE_STYLE = RenderStyle.stroke(Color.black, EXTERNAL_EDGE_STROKE);
+    private static final RenderStyle VERTEX_STYLE = RenderStyle.fillAndStroke(Color.white, Color.black, VERTEX_STROKE);
+    private static final double VERTEX_RADIUS = 3;
+
+    static {
+        for (int i = 0; i < PALETTE.length; i++) {
+            TILE_STYLES[i] = RenderStyle.fill(PALETTE[i]);
+        }
+    }
+
+    private final Shape hexagonShape;
+
+    BenchmarkRenderer(CompositeGrid grid, double edgeLength) {
+        super(grid, edgeLength);
+        hexagonShape = hexagon.toShape();
+    }
+
+    private static int paletteIndex(Object element) {
+        return (System.identityHashCode(element) & 0x7fffffff) % PALETTE.length;
+    }
+
+    @Override
+    protected void drawHexagon(Graphics2D g2d, Tile tile) {
+        if (tile == null)
+            return;
+        g2d.setColor(PALETTE[paletteIndex(tile)]);
+        g2d.fill(hexagonShape);
+    }
+
+    @Override
+    protected void drawInternalEdge(Graphics2D g2d, Edge edge, double x, double y) {
+        g2d.setColor(Color.darkGray);
+        g2d.setStroke(INTERNAL_EDGE_STROKE);
+        g2d.drawLine(0, 0, (int) x, (int) y);
+    }
+
+    @Override
+    protected void drawExternalEdge(Graphics2D g2d, Edge edge, double x, double y) {
+        g2d.setColor(Color.black);
+        g2d.setStroke(EXTERNAL_EDGE_STROKE);
+        g2d.drawLine(0, 0, (int) x, (int) y);
+    }
+
+    @Override
+    protected void drawHexagonCentreVertex(Graphics2D g2d, Vertex vertex) {
+        drawVertex(g2d);
+    }
+
+    @Override
+    protected void drawExternalEdgeVertex(Graphics2D g2d, Vertex vertex) {
+        drawVertex(g2d);
+    }
+
+    private static void drawVertex(Graphics2D g2d) {
+        g2d.setColor(Color.white);
+        g2d.fillOval(-3, -3, 6, 6);
+        g2d.setColor(Color.black);
+        g2d.setStroke(VERTEX_STROKE);
+        g2d.drawOval(-3, -3, 6, 6);
+    }
+
+    @Override
+    protected RenderStyle getHexagonStyle(Tile tile) {
+        return tile == null ? null : TILE_STYLES[paletteIndex(tile)];
+    }
+
+    @Override
+    protected RenderStyle getInternalEdgeStyle(Edge edge) {
+        return INTERNAL_EDGE_STYLE;
+    }
+
+    @Override
+    protected RenderStyle getExternalEdgeStyle(Edge edge) {
+        return EXTERNAL_EDGE_STYLE;
+    }
+
+    @Override
+    protected RenderStyle getHexagonCentreVertexStyle(Vertex vertex) {
+        return VERTEX_STYLE;
+    }
+
+    @Override
+    protected RenderStyle getExternalEdgeVertexStyle(Vertex vertex) {
+        return VERTEX_STYLE;
+    }
+
+    @Override
+    protected double getVertexRadius(boolean isHexagonCentre) {
+        return VERTEX_RADIUS;
+    }
+}
@@ -0,0 +1,43 @@
+package hextrigrid.benchmark;
+
+import hextrigrid.grid.composite.CompositeGrid;
+import hextrigrid.grid.triangle.TriangleGrid;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Construction of composite and triangle grids, border trimming included.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GridConstructionBenchmark {
+    @Param({"16", "128", "512"})
+    public int size;
+
+    @Param({"false", "true"})
+    public boolean compact;
+
+    @Benchmark
+    public CompositeGrid compositeGrid() {
+        return new CompositeGrid(size, size, compact);
+    }
+
+    @Benchmark
+    public TriangleGrid triangleGrid() {
+        return new TriangleGrid(size, size, compact);
+    }
+}
@@ -0,0 +1,70 @@
+package hextrigrid.benchmark;
+
+import hextrigrid.grid.composite.CompositeGrid;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Full-grid rendering into an off-screen image large enough to hold the whole grid.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class RenderBenchmark {
+    private static final double EDGE_LENGTH = 20;
+
+    @Param({"16", "64"})
+    public int size;
+
+    @Param({"false", "true"})
+    public boolean antialias;
+
+    private BenchmarkRenderer renderer;
+    private BufferedImage image;
+    private Graphics2D g2d;
+
+    @Setup
+    public void setup() {
+        renderer = new BenchmarkRenderer(new CompositeGrid(size, size), EDGE_LENGTH);
+        Rectangle bounds = renderer.getGridBounds().getBounds();
+        image = new BufferedImage(bounds.width + 1, bounds.height + 1, BufferedImage.TYPE_INT_ARGB);
+        g2d = image.createGraphics();
+        g2d.translate(-bounds.x, -bounds.y);
+        g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING,
+                             antialias ? RenderingHints.VALUE_ANTIALIAS_ON : RenderingHints.VALUE_ANTIALIAS_OFF);
+    }
+
+    @TearDown
+    public void tearDown() {
+        g2d.dispose();
+    }
+
+    @Benchmark
+    public BufferedImage drawGrid() {
+        renderer.drawGrid(g2d);
+        return image;
+    }
+
+    @Benchmark
+    public BufferedImage drawGridBatched() {
+        renderer.drawGridBatched(g2d);
+        return image;
+    }
+}
@@ -0,0 +1,106 @@
+package hextrigrid.benchmark;
+
+import hextrigrid.grid.Tile;
+import hextrigrid.grid.composite.CompositeGrid;
+import hextrigrid.grid.triangle.TriangleCoordinate;
+import hextrigrid.grid.triangle.TriangleGrid;
+import hextrigrid.grid.triangle.TriangleGridNode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.awt.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Topology queries, each run over every node of a 128x128 grid per invocation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TopologyBenchmark {
+    @Param({"false", "true"})
+    public boolean compact;
+
+    private CompositeGrid grid;
+    private TriangleGrid triangleGrid;
+    private TriangleCoordinate[] coordinates;
+    private final long[] adjacent = new long[2];
+
+    @Setup
+    public void setup() {
+        grid = new CompositeGrid(128, 128, compact);
+        triangleGrid = grid.getTriangleGrid();
+        coordinates = new TriangleCoordinate[triangleGrid.getVertexCount()];
+        for (int y = 0; y < triangleGrid.getHeight(); y++) {
+            for (int x = 0; x < triangleGrid.getWidth(); x++) {
+                coordinates[triangleGrid.getVertexIndex(x, y)] = new TriangleCoordinate(x, y);
+            }
+        }
+    }
+
+    @Benchmark
+    public void getNodeAtEndOfEdge(Blackhole blackhole) {
+        for (int y = 0; y < triangleGrid.getHeight(); y++) {
+            for (int x = 0; x < triangleGrid.getWidth(); x++) {
+                for (int direction = 0; direction < 6; direction++) {
+                    TriangleGridNode node = triangleGrid.getNodeAtEndOfEdge(x, y, direction);
+                    blackhole.consume(node);
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    public void getAdjacentTilesOfEdge(Blackhole blackhole) {
+        for (int y = 0; y < triangleGrid.getHeight(); y++) {
+            for (int x = 0; x < triangleGrid.getWidth(); x++) {
+                for (int edgeIndex = 0; edgeIndex < 3; edgeIndex++) {
+                    Tile[] tiles = grid.getAdjacentTilesOfEdge(x, y, edgeIndex);
+                    blackhole.consume(tiles);
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    public void getAdjacentTilesOfEdgePacked(Blackhole blackhole) {
+        for (int y = 0; y < triangleGrid.getHeight(); y++) {
+            for (int x = 0; x < triangleGrid.getWidth(); x++) {
+                for (int edgeIndex = 0; edgeIndex < 3; edgeIndex++) {
+                    int count = grid.getAdjacentTilesOfEdge(x, y, edgeIndex, adjacent);
+                    blackhole.consume(adjacent[count - 1]);
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    public void getHexagonCoordinate(Blackhole blackhole) {
+        for (TriangleCoordinate coordinate : coordinates) {
+            Point hexagon = coordinate.getHexagonCoordinate();
+            blackhole.consume(hexagon);
+        }
+    }
+
+    @Benchmark
+    public void getPackedHexagonCoordinate(Blackhole blackhole) {
+        for (int y = 0; y < triangleGrid.getHeight(); y++) {
+            for (int x = 0; x < triangleGrid.getWidth(); x++) {
+                blackhole.consume(TriangleCoordinate.getPackedHexagonCoordinate(x, y));
+            }
+        }
+    }
+}
@@ -1,16 +1,27 @@
 package hextrigrid;
 
+import hextrigrid.grid.composite.AsyncGridRenderer;
 import hextrigrid.grid.composite.CompositeGrid;
 
 import javax.swing.*;
 import java.awt.*;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.awt.event.MouseWheelEvent;
+import java.awt.geom.AffineTransform;
 
 public class CompositeGridDemo {
     CompositeGrid grid = new CompositeGrid(7,7);
     private CompositeGridDemoRenderer renderer = new CompositeGridDemoRenderer(grid, 60);
+    // Frames are rendered off the EDT, which only paints the latest completed one
+    private final AsyncGridRenderer asyncRenderer = new AsyncGridRenderer(renderer);
+    // View transform, changed by dragging (pan) and the mouse wheel (zoom)
+    private final AffineTransform view = AffineTransform.getTranslateInstance(250, 150);
 
     public CompositeGridDemo()
     {
+        // Drop vertices, then internal edges, as the view is zoomed out
+        renderer.setDetailThresholds(12, 6, 0);
         createAndShowGUI();
     }
 
@@ -24,18 +35,50 @@ public class CompositeGridDemo {
     }
 
     private JPanel createPreviewPane() {
-        return new JPanel() {
+        JPanel panel = new JPanel() {
             @Override
             public void paintComponent(Graphics g) {
                 super.paintComponent(g);
                 Graphics2D g2d = (Graphics2D) g;
-                g2d.translate(250, 150);
-                renderer.drawGrid(g2d);
+                asyncRenderer.requestFrame(getWidth(), getHeight(), view);
+                asyncRenderer.drawFrame(g2d, view);
             }
         };
+        asyncRenderer.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        asyncRenderer.setFrameListener(panel::repaint);
+
+        MouseAdapter navigation = new MouseAdapter() {
+            private Point lastPoint;
+
+            @Override
+            public void mousePressed(MouseEvent e) {
+                lastPoint = e.getPoint();
+            }
+
+            @Override
+            public void mouseDragged(MouseEvent e) {
+                view.preConcatenate(AffineTransform.getTranslateInstance(e.getX() - lastPoint.x, e.getY() - lastPoint.y));
+                lastPoint = e.getPoint();
+                panel.repaint();
+            }
+
+            @Override
+            public void mouseWheelMoved(MouseWheelEvent e) {
+                double scale = Math.pow(1.1, -e.getPreciseWheelRotation());
+                AffineTransform zoom = AffineTransform.getTranslateInstance(e.getX(), e.getY());
+                zoom.scale(scale, scale);
+                zoom.translate(-e.getX(), -e.getY());
+                view.preConcatenate(zoom);
+                panel.repaint();
+            }
+        };
+        panel.addMouseListener(navigation);
+        panel.addMouseMotionListener(navigation);
+        panel.addMouseWheelListener(navigation);
+        return panel;
     }
 
     public static void main(String[] args) {
         new CompositeGridDemo();
     }
-}
\ No newline at end of file
+}
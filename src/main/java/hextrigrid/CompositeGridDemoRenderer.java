@@ -2,6 +2,7 @@ package hextrigrid;
 
 import hextrigrid.grid.composite.CompositeGrid;
 import hextrigrid.grid.composite.CompositeGridRenderer;
+import hextrigrid.grid.composite.RenderStyle;
 import hextrigrid.grid.Tile;
 import hextrigrid.grid.Edge;
 import hextrigrid.grid.Vertex;
@@ -14,6 +15,7 @@ public class CompositeGridDemoRenderer extends CompositeGridRenderer {
     private final static BasicStroke dashedStroke = new BasicStroke(2, BasicStroke.CAP_ROUND, BasicStroke.JOIN_ROUND, 0, dashPattern, 0);
     private final static BasicStroke defaultStroke = new BasicStroke(2.0f);
     private final static BasicStroke borderStroke = new BasicStroke(6.0f);
+    private final static BasicStroke vertexOutlineStroke = new BasicStroke(3.0f);
 
     public CompositeGridDemoRenderer(CompositeGrid grid, double edgeLength) {
         super(grid, edgeLength);
@@ -76,4 +78,41 @@ public class CompositeGridDemoRenderer extends CompositeGridRenderer {
         //g2d.setColor(Color.red);
         g2d.fillOval(-6, -6, 12, 12);
     }
+
+    @Override
+    protected RenderStyle getHexagonStyle(Tile tile) {
+        if (tile == null)
+            return null;
+        return RenderStyle.fill(randomColor(tile.hashCode()));
+    }
+
+    @Override
+    protected RenderStyle getInternalEdgeStyle(Edge edge) {
+        return RenderStyle.stroke(randomColor(edge.hashCode()), dashedStroke);
+    }
+
+    @Override
+    protected RenderStyle getExternalEdgeStyle(Edge edge) {
+        return RenderStyle.stroke(randomColor(edge.hashCode()), borderStroke);
+    }
+
+    @Override
+    protected RenderStyle getHexagonCentreVertexStyle(Vertex vertex) {
+        return RenderStyle.fillAndStroke(randomColor(vertex.hashCode()), Color.black, vertexOutlineStroke);
+    }
+
+    @Override
+    protected RenderStyle getExternalEdgeVertexStyle(Vertex vertex) {
+        return RenderStyle.fillAndStroke(randomColor(vertex.hashCode()), Color.black, vertexOutlineStroke);
+    }
+
+    @Override
+    protected double getVertexRadius(boolean isHexagonCentre) {
+        return 7.5;
+    }
+
+    private static Color randomColor(int seed) {
+        Random random = new Random(seed);
+        return new Color(random.nextInt(256), random.nextInt(256), random.nextInt(256));
+    }
 }
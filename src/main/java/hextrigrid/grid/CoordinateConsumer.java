@@ -0,0 +1,15 @@
+package hextrigrid.grid;
+
+/**
+ * Receives grid coordinates one at a time, without boxing them.
+ */
+@FunctionalInterface
+public interface CoordinateConsumer {
+    /**
+     * Accepts a coordinate.
+     *
+     * @param x The x-coordinate.
+     * @param y The y-coordinate.
+     */
+    void accept(int x, int y);
+}
@@ -1,5 +1,9 @@
 package hextrigrid.grid;
 
+/**
+ * An edge of the triangle grid. Edges held by a grid are compared by identity; the views a compact grid creates
+ * on each call carry their coordinate and compare by it, see {@link hextrigrid.grid.triangle.EdgeView}.
+ */
 public class Edge {
     public static final int NORTH_WEST = 0;
     public static final int NORTH_EAST = 1;
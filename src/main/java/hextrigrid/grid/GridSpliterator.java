@@ -0,0 +1,128 @@
+package hextrigrid.grid;
+
+import java.util.Spliterator;
+import java.util.function.LongConsumer;
+
+/**
+ * A {@link Spliterator} over the grid elements of one kind, row by row.
+ * <p>
+ * Each row holds one or more segments (e.g. one per edge index), and within a row every segment covers a
+ * contiguous range of x-coordinates. The ranges are derived once from the grid bounds, so trimmed border elements
+ * are skipped by the loop bounds rather than tested one by one. Splitting halves the remaining rows, and the size
+ * of every part is known exactly.
+ *
+ * @see GridSpliterators
+ */
+final class GridSpliterator implements Spliterator.OfLong {
+    /**
+     * Describes which elements of a row exist and how they are reported.
+     */
+    interface Layout {
+        int getSegmentCount();
+
+        /** First x-coordinate of a segment in a row, inclusive */
+        int getFrom(int y, int segment);
+
+        /** Last x-coordinate of a segment in a row, exclusive; at most getFrom when the row has none */
+        int getTo(int y, int segment);
+
+        long encode(int x, int y, int segment);
+    }
+
+    private final Layout layout;
+    private final int segmentCount;
+    private int row;
+    private int segment;
+    private int x;
+    private final int endRow;
+
+    GridSpliterator(Layout layout, int firstRow, int endRow) {
+        this.layout = layout;
+        this.segmentCount = layout.getSegmentCount();
+        this.row = firstRow;
+        this.endRow = endRow;
+        this.segment = 0;
+        this.x = firstRow < endRow ? layout.getFrom(firstRow, 0) : 0;
+    }
+
+    @Override
+    public boolean tryAdvance(LongConsumer action) {
+        while (row < endRow) {
+            if (x < layout.getTo(row, segment)) {
+                action.accept(layout.encode(x++, row, segment));
+                return true;
+            }
+            nextSegment();
+        }
+        return false;
+    }
+
+    @Override
+    public void forEachRemaining(LongConsumer action) {
+        while (row < endRow) {
+            int y = row;
+            for (int s = segment; s < segmentCount; s++) {
+                int to = layout.getTo(y, s);
+                for (int i = s == segment ? x : layout.getFrom(y, s); i < to; i++) {
+                    action.accept(layout.encode(i, y, s));
+                }
+            }
+            row++;
+            segment = 0;
+            if (row < endRow)
+                x = layout.getFrom(row, 0);
+        }
+    }
+
+    private void nextSegment() {
+        if (++segment == segmentCount) {
+            segment = 0;
+            if (++row == endRow)
+                return;
+        }
+        x = layout.getFrom(row, segment);
+    }
+
+    @Override
+    public Spliterator.OfLong trySplit() {
+        // Only whole rows are handed out; the partly consumed current row stays in the prefix
+        int firstWholeRow = segment == 0 && x == layout.getFrom(row, 0) ? row : row + 1;
+        if (endRow - firstWholeRow < 2)
+            return null;
+        int middle = (firstWholeRow + endRow) >>> 1;
+        GridSpliterator prefix = new GridSpliterator(layout, row, middle);
+        prefix.segment = segment;
+        prefix.x = x;
+        row = middle;
+        segment = 0;
+        x = layout.getFrom(middle, 0);
+        return prefix;
+    }
+
+    @Override
+    public long estimateSize() {
+        if (row >= endRow)
+            return 0;
+        long size = 0;
+        for (int s = segment; s < segmentCount; s++) {
+            size += Math.max(0, layout.getTo(row, s) - (s == segment ? x : layout.getFrom(row, s)));
+        }
+        for (int y = row + 1; y < endRow; y++) {
+            size += getRowSize(y);
+        }
+        return size;
+    }
+
+    private long getRowSize(int y) {
+        long size = 0;
+        for (int s = 0; s < segmentCount; s++) {
+            size += Math.max(0, layout.getTo(y, s) - layout.getFrom(y, s));
+        }
+        return size;
+    }
+
+    @Override
+    public int characteristics() {
+        return ORDERED | DISTINCT | SIZED | SUBSIZED | NONNULL | IMMUTABLE;
+    }
+}
@@ -0,0 +1,188 @@
+package hextrigrid.grid;
+
+import hextrigrid.grid.composite.CompositeGrid;
+import hextrigrid.grid.triangle.TriangleFace;
+import hextrigrid.grid.triangle.TriangleGrid;
+
+import java.util.Spliterator;
+import java.util.stream.LongStream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Splittable traversal of the elements of a grid, for use with parallel streams and fork/join tasks.
+ * <p>
+ * Tiles and vertices are reported as {@link PackedCoordinate}s. Edges and faces are reported either per edge
+ * index or pointing, as the packed coordinate of the node holding them, or all together as dense indices
+ * ({@link TriangleGrid#getEdgeIndex}, {@link TriangleGrid#getFaceIndex}). Trimmed border edges and faces are never
+ * reported. Elements come in row-major order and every spliterator is {@link Spliterator#SIZED} and
+ * {@link Spliterator#SUBSIZED}, splitting by halving the remaining rows.
+ */
+public final class GridSpliterators {
+    private GridSpliterators() {
+    }
+
+    /**
+     * @param grid The grid.
+     * @return The packed hexagon coordinates of every tile.
+     */
+    public static Spliterator.OfLong tiles(CompositeGrid grid) {
+        int width = grid.getWidth();
+        return new GridSpliterator(new GridSpliterator.Layout() {
+            @Override
+            public int getSegmentCount() {
+                return 1;
+            }
+
+            @Override
+            public int getFrom(int y, int segment) {
+                return 0;
+            }
+
+            @Override
+            public int getTo(int y, int segment) {
+                return width;
+            }
+
+            @Override
+            public long encode(int x, int y, int segment) {
+                return PackedCoordinate.pack(x, y);
+            }
+        }, 0, grid.getHeight());
+    }
+
+    /**
+     * @param grid The triangle grid.
+     * @return The packed coordinates of every vertex.
+     */
+    public static Spliterator.OfLong vertices(TriangleGrid grid) {
+        return new GridSpliterator(new NodeLayout(grid, new int[][]{{}}), 0, grid.getHeight());
+    }
+
+    /**
+     * @param grid      The triangle grid.
+     * @param edgeIndex The index of the edges (0-2).
+     * @return The packed coordinates of every node holding an existing edge with the given index.
+     */
+    public static Spliterator.OfLong edges(TriangleGrid grid, int edgeIndex) {
+        return new GridSpliterator(new NodeLayout(grid, new int[][]{{edgeIndex}}), 0, grid.getHeight());
+    }
+
+    /**
+     * @param grid     The triangle grid.
+     * @param pointing true for the upper faces (pointy up), false for the lower faces (pointy down).
+     * @return The packed coordinates of every node holding an existing face with the given pointing.
+     */
+    public static Spliterator.OfLong faces(TriangleGrid grid, boolean pointing) {
+        return new GridSpliterator(new NodeLayout(grid, new int[][]{faceCorners(pointing)}), 0, grid.getHeight());
+    }
+
+    /**
+     * @param grid The triangle grid.
+     * @return The dense index of every existing edge.
+     */
+    public static Spliterator.OfLong edgeIndices(TriangleGrid grid) {
+        return new GridSpliterator(new NodeLayout(grid, new int[][]{{0}, {1}, {2}}) {
+            @Override
+            public long encode(int x, int y, int segment) {
+                return grid.getEdgeIndex(x, y, segment);
+            }
+        }, 0, grid.getHeight());
+    }
+
+    /**
+     * @param grid The triangle grid.
+     * @return The dense index of every existing face.
+     */
+    public static Spliterator.OfLong faceIndices(TriangleGrid grid) {
+        return new GridSpliterator(new NodeLayout(grid, new int[][]{faceCorners(TriangleFace.POINTY_UP),
+                                                                   faceCorners(TriangleFace.POINTY_DOWN)}) {
+            @Override
+            public long encode(int x, int y, int segment) {
+                return grid.getFaceIndex(x, y, segment == 0 ? TriangleFace.POINTY_UP : TriangleFace.POINTY_DOWN);
+            }
+        }, 0, grid.getHeight());
+    }
+
+    public static LongStream tileStream(CompositeGrid grid, boolean parallel) {
+        return StreamSupport.longStream(tiles(grid), parallel);
+    }
+
+    public static LongStream vertexStream(TriangleGrid grid, boolean parallel) {
+        return StreamSupport.longStream(vertices(grid), parallel);
+    }
+
+    public static LongStream edgeIndexStream(TriangleGrid grid, boolean parallel) {
+        return StreamSupport.longStream(edgeIndices(grid), parallel);
+    }
+
+    public static LongStream faceIndexStream(TriangleGrid grid, boolean parallel) {
+        return StreamSupport.longStream(faceIndices(grid), parallel);
+    }
+
+    /** The directions of the two other corners of a face, as in {@link TriangleGrid#faceExists} */
+    private static int[] faceCorners(boolean pointing) {
+        return pointing == TriangleFace.POINTY_UP ? new int[]{0, 1} : new int[]{3, 4};
+    }
+
+    /**
+     * Layout of nodes whose neighbours in a set of directions must exist, one segment per set. The x-range of each
+     * segment depends only on the row parity and on whether the row is the first or last, so it is precomputed
+     * from {@link TriangleGrid#directionDifferences}.
+     */
+    private static class NodeLayout implements GridSpliterator.Layout {
+        private final int height;
+        // [segment][parity] -> from / to / minimum row / maximum row
+        private final int[][] from;
+        private final int[][] to;
+        private final int[][] minimumRow;
+        private final int[][] maximumRow;
+
+        NodeLayout(TriangleGrid grid, int[][] requiredDirections) {
+            int width = grid.getWidth();
+            height = grid.getHeight();
+            int segments = requiredDirections.length;
+            from = new int[segments][2];
+            to = new int[segments][2];
+            minimumRow = new int[segments][2];
+            maximumRow = new int[segments][2];
+            for (int s = 0; s < segments; s++) {
+                for (int parity = 0; parity < 2; parity++) {
+                    from[s][parity] = 0;
+                    to[s][parity] = width;
+                    minimumRow[s][parity] = 0;
+                    maximumRow[s][parity] = height - 1;
+                    for (int direction : requiredDirections[s]) {
+                        int[] diff = TriangleGrid.directionDifferences[parity][direction];
+                        from[s][parity] = Math.max(from[s][parity], -diff[0]);
+                        to[s][parity] = Math.min(to[s][parity], width - diff[0]);
+                        minimumRow[s][parity] = Math.max(minimumRow[s][parity], -diff[1]);
+                        maximumRow[s][parity] = Math.min(maximumRow[s][parity], height - 1 - diff[1]);
+                    }
+                }
+            }
+        }
+
+        @Override
+        public int getSegmentCount() {
+            return from.length;
+        }
+
+        @Override
+        public int getFrom(int y, int segment) {
+            return from[segment][y & 1];
+        }
+
+        @Override
+        public int getTo(int y, int segment) {
+            int parity = y & 1;
+            if (y < minimumRow[segment][parity] || y > maximumRow[segment][parity])
+                return from[segment][parity];
+            return to[segment][parity];
+        }
+
+        @Override
+        public long encode(int x, int y, int segment) {
+            return PackedCoordinate.pack(x, y);
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package hextrigrid.grid;
+
+/**
+ * Packs an (x, y) grid coordinate into a single {@code long} so coordinates can be passed around,
+ * stored in primitive arrays and compared without allocating {@link java.awt.Point} objects.
+ * The x-coordinate occupies the upper 32 bits and the y-coordinate the lower 32 bits,
+ * so negative coordinates are supported.
+ */
+public final class PackedCoordinate {
+    private PackedCoordinate() {
+    }
+
+    /**
+     * Packs a coordinate.
+     *
+     * @param x The x-coordinate.
+     * @param y The y-coordinate.
+     * @return The packed coordinate.
+     */
+    public static long pack(int x, int y) {
+        return ((long) x << 32) | (y & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Extracts the x-coordinate of a packed coordinate.
+     *
+     * @param packed The packed coordinate.
+     * @return The x-coordinate.
+     */
+    public static int x(long packed) {
+        return (int) (packed >> 32);
+    }
+
+    /**
+     * Extracts the y-coordinate of a packed coordinate.
+     *
+     * @param packed The packed coordinate.
+     * @return The y-coordinate.
+     */
+    public static int y(long packed) {
+        return (int) packed;
+    }
+}
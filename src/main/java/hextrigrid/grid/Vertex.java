@@ -1,4 +1,8 @@
 package hextrigrid.grid;
 
+/**
+ * A vertex of the triangle grid. Vertices held by a grid are compared by identity; the views a compact grid creates
+ * on each call carry their coordinate and compare by it, see {@link hextrigrid.grid.triangle.VertexView}.
+ */
 public class Vertex {
 }
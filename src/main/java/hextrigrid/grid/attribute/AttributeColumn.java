@@ -0,0 +1,89 @@
+package hextrigrid.grid.attribute;
+
+import hextrigrid.grid.change.GridChangeLog;
+
+/**
+ * A named column of primitive values, one per element of a kind, indexed by the element's dense index.
+ * Subclasses expose the backing array so whole-column scans compile to plain array loops.
+ * <p>
+ * With a {@link GridChangeLog} attached, every write through the column's methods is recorded: single sets and
+ * range fills per element, whole-column writes ({@code fill}, {@code clear}, {@code copyFrom}, {@code swap}) as
+ * {@link GridChangeLog#allChanged}. Writes to the backing array are not recorded.
+ */
+public abstract class AttributeColumn {
+    private final String name;
+    private final ElementKind kind;
+    protected final int size;
+    private volatile GridChangeLog changeLog;
+
+    protected AttributeColumn(String name, ElementKind kind, int size) {
+        this.name = name;
+        this.kind = kind;
+        this.size = size;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public ElementKind getKind() {
+        return kind;
+    }
+
+    /**
+     * Gets the number of elements in the column.
+     *
+     * @return The column size.
+     */
+    public int size() {
+        return size;
+    }
+
+    public GridChangeLog getChangeLog() {
+        return changeLog;
+    }
+
+    /**
+     * Attaches a change log that writes are recorded into. The log must have the index layout of the column's grid
+     * (see {@link GridChangeLog#GridChangeLog(int, int, int)}), such as {@code CompositeGrid.getChangeLog()}.
+     *
+     * @param changeLog The log, or {@code null} to stop recording.
+     */
+    public void setChangeLog(GridChangeLog changeLog) {
+        this.changeLog = changeLog;
+    }
+
+    public abstract AttributeType getType();
+
+    /**
+     * Resets every element to zero (or {@code false}).
+     */
+    public abstract void clear();
+
+    protected void recordChange(int index) {
+        GridChangeLog log = changeLog;
+        if (log != null)
+            log.indexChanged(kind, index);
+    }
+
+    protected void recordChanges(int fromIndex, int toIndex) {
+        GridChangeLog log = changeLog;
+        if (log != null)
+            log.rangeChanged(kind, fromIndex, toIndex);
+    }
+
+    protected void recordAllChanged() {
+        GridChangeLog log = changeLog;
+        if (log != null)
+            log.allChanged();
+    }
+
+    /**
+     * Checks that another column can be copied or swapped with this one.
+     */
+    protected void checkCompatible(AttributeColumn other) {
+        if (other.getType() != getType() || other.size != size)
+            throw new IllegalArgumentException("Column " + other.name + " (" + other.getType() + ", " + other.size
+                    + ") is not compatible with " + name + " (" + getType() + ", " + size + ")");
+    }
+}
@@ -0,0 +1,14 @@
+package hextrigrid.grid.attribute;
+
+/**
+ * The primitive element types of attribute columns.
+ */
+public enum AttributeType {
+    INT,
+    LONG,
+    FLOAT,
+    DOUBLE,
+    BYTE,
+    /** One bit per element, packed into longs */
+    BIT
+}
@@ -0,0 +1,140 @@
+package hextrigrid.grid.attribute;
+
+import java.util.Arrays;
+
+/**
+ * Attribute column of single bits, packed 64 to a {@code long}.
+ */
+public class BitColumn extends AttributeColumn {
+    private long[] words;
+
+    public BitColumn(String name, ElementKind kind, int size) {
+        super(name, kind, size);
+        this.words = new long[(size + 63) >>> 6];
+    }
+
+    public boolean get(int index) {
+        return (words[index >>> 6] & (1L << index)) != 0;
+    }
+
+    public void set(int index, boolean value) {
+        if (value)
+            words[index >>> 6] |= 1L << index;
+        else
+            words[index >>> 6] &= ~(1L << index);
+        recordChange(index);
+    }
+
+    /**
+     * Returns the backing words; bit {@code i} is bit {@code i % 64} of word {@code i / 64}.
+     * The array is replaced by {@link #swap}, so do not hold on to it across swaps.
+     *
+     * @return The packed bits.
+     */
+    public long[] words() {
+        return words;
+    }
+
+    /**
+     * Sets every element to a value.
+     *
+     * @param value The value.
+     */
+    public void fill(boolean value) {
+        Arrays.fill(words, value ? -1L : 0L);
+        if (value)
+            clearUnusedBits();
+        recordAllChanged();
+    }
+
+    /**
+     * Sets a range of elements to a value.
+     *
+     * @param fromIndex The first index, inclusive.
+     * @param toIndex   The last index, exclusive.
+     * @param value     The value.
+     */
+    public void fill(int fromIndex, int toIndex, boolean value) {
+        if (fromIndex > toIndex)
+            throw new IllegalArgumentException("fromIndex(" + fromIndex + ") > toIndex(" + toIndex + ")");
+        if (fromIndex < 0 || toIndex > size)
+            throw new ArrayIndexOutOfBoundsException("Range [" + fromIndex + ", " + toIndex + ") out of bounds for size " + size);
+        if (fromIndex == toIndex)
+            return;
+
+        int firstWord = fromIndex >>> 6;
+        int lastWord = (toIndex - 1) >>> 6;
+        long firstMask = -1L << fromIndex;
+        long lastMask = -1L >>> -toIndex;
+        if (firstWord == lastWord) {
+            setBits(firstWord, firstMask & lastMask, value);
+        } else {
+            setBits(firstWord, firstMask, value);
+            Arrays.fill(words, firstWord + 1, lastWord, value ? -1L : 0L);
+            setBits(lastWord, lastMask, value);
+        }
+        recordChanges(fromIndex, toIndex);
+    }
+
+    private void setBits(int word, long mask, boolean value) {
+        if (value)
+            words[word] |= mask;
+        else
+            words[word] &= ~mask;
+    }
+
+    /**
+     * Counts the elements that are set.
+     *
+     * @return The number of set bits.
+     */
+    public int cardinality() {
+        int count = 0;
+        for (long word : words) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    /**
+     * Copies every value of another bit column of the same size into this one.
+     *
+     * @param source The column to copy from.
+     */
+    public void copyFrom(BitColumn source) {
+        checkCompatible(source);
+        System.arraycopy(source.words, 0, words, 0, words.length);
+        recordAllChanged();
+    }
+
+    /**
+     * Exchanges the contents of two bit columns of the same size in constant time.
+     *
+     * @param other The column to swap with.
+     */
+    public void swap(BitColumn other) {
+        checkCompatible(other);
+        long[] swap = words;
+        words = other.words;
+        other.words = swap;
+        recordAllChanged();
+        other.recordAllChanged();
+    }
+
+    @Override
+    public AttributeType getType() {
+        return AttributeType.BIT;
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(words, 0L);
+        recordAllChanged();
+    }
+
+    private void clearUnusedBits() {
+        int used = size & 63;
+        if (used != 0)
+            words[words.length - 1] &= (1L << used) - 1;
+    }
+}
@@ -0,0 +1,92 @@
+package hextrigrid.grid.attribute;
+
+import java.util.Arrays;
+
+/**
+ * Attribute column of {@code double} values.
+ */
+public class DoubleColumn extends AttributeColumn {
+    private double[] values;
+
+    public DoubleColumn(String name, ElementKind kind, int size) {
+        super(name, kind, size);
+        this.values = new double[size];
+    }
+
+    public double get(int index) {
+        return values[index];
+    }
+
+    public void set(int index, double value) {
+        values[index] = value;
+        recordChange(index);
+    }
+
+    /**
+     * Returns the backing array. It is replaced by {@link #swap}, so do not hold on to it across swaps.
+     *
+     * @return The values, indexed by element index.
+     */
+    public double[] values() {
+        return values;
+    }
+
+    /**
+     * Sets every element to a value.
+     *
+     * @param value The value.
+     */
+    public void fill(double value) {
+        Arrays.fill(values, value);
+        recordAllChanged();
+    }
+
+    /**
+     * Sets a range of elements to a value.
+     *
+     * @param fromIndex The first index, inclusive.
+     * @param toIndex   The last index, exclusive.
+     * @param value     The value.
+     */
+    public void fill(int fromIndex, int toIndex, double value) {
+        Arrays.fill(values, fromIndex, toIndex, value);
+        recordChanges(fromIndex, toIndex);
+    }
+
+    /**
+     * Copies every value of another column of the same type and size into this one.
+     *
+     * @param source The column to copy from.
+     */
+    public void copyFrom(DoubleColumn source) {
+        checkCompatible(source);
+        System.arraycopy(source.values, 0, values, 0, size);
+        recordAllChanged();
+    }
+
+    /**
+     * Exchanges the contents of two columns of the same type and size in constant time,
+     * e.g. to flip the current and next state of a double-buffered simulation.
+     *
+     * @param other The column to swap with.
+     */
+    public void swap(DoubleColumn other) {
+        checkCompatible(other);
+        double[] swap = values;
+        values = other.values;
+        other.values = swap;
+        recordAllChanged();
+        other.recordAllChanged();
+    }
+
+    @Override
+    public AttributeType getType() {
+        return AttributeType.DOUBLE;
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(values, (double) 0);
+        recordAllChanged();
+    }
+}
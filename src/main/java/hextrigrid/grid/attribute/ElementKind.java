@@ -0,0 +1,15 @@
+package hextrigrid.grid.attribute;
+
+/**
+ * The kinds of grid element an attribute column can be attached to.
+ */
+public enum ElementKind {
+    /** Hexagonal tiles, indexed by {@link hextrigrid.grid.composite.CompositeGrid#getTileIndex} */
+    TILE,
+    /** Triangle vertices, indexed by {@link hextrigrid.grid.triangle.TriangleGrid#getVertexIndex} */
+    VERTEX,
+    /** Triangle edges, indexed by {@link hextrigrid.grid.triangle.TriangleGrid#getEdgeIndex} */
+    EDGE,
+    /** Triangle faces, indexed by {@link hextrigrid.grid.triangle.TriangleGrid#getFaceIndex} */
+    FACE
+}
@@ -0,0 +1,200 @@
+package hextrigrid.grid.attribute;
+
+import hextrigrid.grid.change.GridChangeLog;
+import hextrigrid.grid.composite.CompositeGrid;
+import hextrigrid.grid.triangle.TriangleGrid;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Registry of named primitive attribute columns for the tiles, vertices, edges and faces of a {@link CompositeGrid}.
+ * <p>
+ * Each column holds one value per element in a dense array indexed by the element's grid index, so a lookup is a
+ * single array access and a scan over {@code values()} is a plain loop. The index helpers of this class map grid
+ * coordinates to those indices.
+ */
+public class GridAttributes {
+    private final CompositeGrid grid;
+    private final TriangleGrid triangleGrid;
+    private final EnumMap<ElementKind, Map<String, AttributeColumn>> columns = new EnumMap<>(ElementKind.class);
+    private GridChangeLog changeLog;
+
+    public GridAttributes(CompositeGrid grid) {
+        this.grid = grid;
+        this.triangleGrid = grid.getTriangleGrid();
+        for (ElementKind kind : ElementKind.values()) {
+            columns.put(kind, new LinkedHashMap<>());
+        }
+    }
+
+    /**
+     * Gets the number of elements of a kind, i.e. the size of its columns.
+     *
+     * @param kind The element kind.
+     * @return The number of element indices, trimmed border edges and faces included.
+     */
+    public int getElementCount(ElementKind kind) {
+        switch (kind) {
+            case TILE:
+                return grid.getTileCount();
+            case VERTEX:
+                return triangleGrid.getVertexCount();
+            case EDGE:
+                return triangleGrid.getEdgeCount();
+            default:
+                return triangleGrid.getFaceCount();
+        }
+    }
+
+    public IntColumn addIntColumn(ElementKind kind, String name) {
+        return add(new IntColumn(name, kind, getElementCount(kind)));
+    }
+
+    public LongColumn addLongColumn(ElementKind kind, String name) {
+        return add(new LongColumn(name, kind, getElementCount(kind)));
+    }
+
+    public FloatColumn addFloatColumn(ElementKind kind, String name) {
+        return add(new FloatColumn(name, kind, getElementCount(kind)));
+    }
+
+    public DoubleColumn addDoubleColumn(ElementKind kind, String name) {
+        return add(new DoubleColumn(name, kind, getElementCount(kind)));
+    }
+
+    public ByteColumn addByteColumn(ElementKind kind, String name) {
+        return add(new ByteColumn(name, kind, getElementCount(kind)));
+    }
+
+    public BitColumn addBitColumn(ElementKind kind, String name) {
+        return add(new BitColumn(name, kind, getElementCount(kind)));
+    }
+
+    /**
+     * Adds a column created elsewhere, e.g. one loaded from a snapshot.
+     *
+     * @param column The column; its size must match the element count of its kind.
+     * @return The column.
+     * @throws IllegalArgumentException If the size is wrong or the name is already used for the kind.
+     */
+    public <T extends AttributeColumn> T add(T column) {
+        if (column.size() != getElementCount(column.getKind()))
+            throw new IllegalArgumentException("Column " + column.getName() + " has " + column.size() + " elements, "
+                    + getElementCount(column.getKind()) + " expected");
+        Map<String, AttributeColumn> kindColumns = columns.get(column.getKind());
+        if (kindColumns.containsKey(column.getName()))
+            throw new IllegalArgumentException("Duplicate " + column.getKind() + " column: " + column.getName());
+        kindColumns.put(column.getName(), column);
+        if (changeLog != null)
+            column.setChangeLog(changeLog);
+        return column;
+    }
+
+    /**
+     * Attaches a change log to every column, including columns added later, so that writes through the columns
+     * are recorded. Usually the grid's own log, {@link CompositeGrid#getChangeLog()}.
+     *
+     * @param changeLog The log, or {@code null} to stop recording.
+     */
+    public void setChangeLog(GridChangeLog changeLog) {
+        this.changeLog = changeLog;
+        for (Map<String, AttributeColumn> kindColumns : columns.values()) {
+            for (AttributeColumn column : kindColumns.values()) {
+                column.setChangeLog(changeLog);
+            }
+        }
+    }
+
+    public GridChangeLog getChangeLog() {
+        return changeLog;
+    }
+
+    /**
+     * Looks up a column.
+     *
+     * @param kind The element kind.
+     * @param name The column name.
+     * @return The column, or {@code null} if none is registered.
+     */
+    public AttributeColumn getColumn(ElementKind kind, String name) {
+        return columns.get(kind).get(name);
+    }
+
+    public IntColumn getIntColumn(ElementKind kind, String name) {
+        return getColumn(kind, name, IntColumn.class);
+    }
+
+    public LongColumn getLongColumn(ElementKind kind, String name) {
+        return getColumn(kind, name, LongColumn.class);
+    }
+
+    public FloatColumn getFloatColumn(ElementKind kind, String name) {
+        return getColumn(kind, name, FloatColumn.class);
+    }
+
+    public DoubleColumn getDoubleColumn(ElementKind kind, String name) {
+        return getColumn(kind, name, DoubleColumn.class);
+    }
+
+    public ByteColumn getByteColumn(ElementKind kind, String name) {
+        return getColumn(kind, name, ByteColumn.class);
+    }
+
+    public BitColumn getBitColumn(ElementKind kind, String name) {
+        return getColumn(kind, name, BitColumn.class);
+    }
+
+    private <T extends AttributeColumn> T getColumn(ElementKind kind, String name, Class<T> type) {
+        AttributeColumn column = getColumn(kind, name);
+        if (column == null)
+            return null;
+        if (!type.isInstance(column))
+            throw new IllegalArgumentException(kind + " column " + name + " holds " + column.getType() + " values");
+        return type.cast(column);
+    }
+
+    /**
+     * Removes a column.
+     *
+     * @param kind The element kind.
+     * @param name The column name.
+     * @return The removed column, or {@code null} if none was registered.
+     */
+    public AttributeColumn removeColumn(ElementKind kind, String name) {
+        return columns.get(kind).remove(name);
+    }
+
+    /**
+     * Gets the columns of a kind in registration order.
+     *
+     * @param kind The element kind.
+     * @return An unmodifiable view of the columns.
+     */
+    public Collection<AttributeColumn> getColumns(ElementKind kind) {
+        return Collections.unmodifiableCollection(columns.get(kind).values());
+    }
+
+    public int tileIndex(int x, int y) {
+        return grid.getTileIndex(x, y);
+    }
+
+    public int vertexIndex(int x, int y) {
+        return triangleGrid.getVertexIndex(x, y);
+    }
+
+    public int edgeIndex(int x, int y, int edgeIndex) {
+        return triangleGrid.getEdgeIndex(x, y, edgeIndex);
+    }
+
+    public int faceIndex(int x, int y, boolean pointing) {
+        return triangleGrid.getFaceIndex(x, y, pointing);
+    }
+
+    public CompositeGrid getGrid() {
+        return grid;
+    }
+}
@@ -0,0 +1,17 @@
+package hextrigrid.grid.automaton;
+
+/**
+ * Computes the next state of a cell of a {@link CellularAutomaton} from the current states.
+ * Rules may be called from several threads at once and must not keep state between calls.
+ */
+public interface CellRule {
+    /**
+     * @param cell            The dense index of the cell.
+     * @param state           The current state of the cell.
+     * @param neighbourStates The current states of the neighbours inside the grid, in the first
+     *                        {@code neighbourCount} elements. The array is reused between calls.
+     * @param neighbourCount  The number of neighbours inside the grid.
+     * @return The next state of the cell.
+     */
+    int next(int cell, int state, int[] neighbourStates, int neighbourCount);
+}
@@ -0,0 +1,354 @@
+package hextrigrid.grid.automaton;
+
+import hextrigrid.grid.PackedCoordinate;
+import hextrigrid.grid.composite.CompositeGrid;
+import hextrigrid.grid.triangle.TriangleFace;
+import hextrigrid.grid.triangle.TriangleGrid;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * A synchronous cellular automaton over the hexagonal tiles or the triangle faces of a grid.
+ * <p>
+ * Each cell has one {@code int} of state, addressed by the dense tile or face index. Every step computes the next
+ * state of each cell from the current states of the cell and its neighbours, so the result does not depend on the
+ * order cells are visited in. Neighbours are precomputed into a table when the automaton is created: the six
+ * adjacent tiles of a tile, or the three faces sharing an edge with a face. Faces removed by border trimming are
+ * not cells and never change.
+ * <p>
+ * {@link #step} visits every cell and writes into a second buffer, which then becomes the current one.
+ * The row bands of the grid can be stepped in parallel on a {@link ForkJoinPool}. {@link #stepActive} only visits
+ * the cells that changed in the previous step, the cells set with {@link #setState}, and their neighbours. That
+ * is much cheaper when activity is local, such as a spreading fire.
+ */
+public class CellularAutomaton {
+    private final int cellCount;
+    private final int rowLength;
+    private final int stride;
+    // Neighbour indices of cell c in neighbours[c * stride, c * stride + neighbourCounts[c]); count -1 for non-cells
+    private final int[] neighbours;
+    private final byte[] neighbourCounts;
+
+    private int[] current;
+    private int[] next;
+    private long generation;
+
+    // Active set for stepActive: cells marked in the current list
+    private final boolean[] active;
+    private int[] activeCells;
+    private int activeCount;
+    private boolean allActive = true;
+
+    private CellularAutomaton(int cellCount, int rowLength, int stride) {
+        this.cellCount = cellCount;
+        this.rowLength = rowLength;
+        this.stride = stride;
+        this.neighbours = new int[cellCount * stride];
+        this.neighbourCounts = new byte[cellCount];
+        this.current = new int[cellCount];
+        this.next = new int[cellCount];
+        this.active = new boolean[cellCount];
+        this.activeCells = new int[64];
+    }
+
+    /**
+     * Creates an automaton with one cell per hexagonal tile, indexed by {@link CompositeGrid#getTileIndex}.
+     *
+     * @param grid The grid.
+     * @return The automaton, with every state 0.
+     */
+    public static CellularAutomaton forTiles(CompositeGrid grid) {
+        CellularAutomaton automaton = new CellularAutomaton(grid.getTileCount(), grid.getWidth(), 6);
+        for (int y = 0; y < grid.getHeight(); y++) {
+            for (int x = 0; x < grid.getWidth(); x++) {
+                int cell = grid.getTileIndex(x, y);
+                int count = 0;
+                for (int direction = 0; direction < 6; direction++) {
+                    int[] diff = CompositeGrid.hexagonDirectionDifferences[x & 1][direction];
+                    if (grid.containsHexagonTile(x + diff[0], y + diff[1]))
+                        automaton.neighbours[cell * 6 + count++] = grid.getTileIndex(x + diff[0], y + diff[1]);
+                }
+                automaton.neighbourCounts[cell] = (byte) count;
+            }
+        }
+        return automaton;
+    }
+
+    /**
+     * Creates an automaton with one cell per triangle face, indexed by {@link TriangleGrid#getFaceIndex}.
+     *
+     * @param grid The triangle grid.
+     * @return The automaton, with every state 0.
+     */
+    public static CellularAutomaton forFaces(TriangleGrid grid) {
+        CellularAutomaton automaton = new CellularAutomaton(grid.getFaceCount(), grid.getWidth() * 2, 3);
+        for (int y = 0; y < grid.getHeight(); y++) {
+            for (int x = 0; x < grid.getWidth(); x++) {
+                automaton.addFaceNeighbours(grid, x, y, TriangleFace.POINTY_UP);
+                automaton.addFaceNeighbours(grid, x, y, TriangleFace.POINTY_DOWN);
+            }
+        }
+        return automaton;
+    }
+
+    /**
+     * The upper face of node N has corners N, N + d0 and N + d1 and shares its edges with the lower faces of
+     * N + d0, N + d1 and N + d0 + d1. The lower face of N has corners N, N + d3 and N + d4 and shares its edges
+     * with the upper faces of N + d3, N + d4 and N + d3 + d4 (d being {@link TriangleGrid#directionDifferences}).
+     */
+    private void addFaceNeighbours(TriangleGrid grid, int x, int y, boolean pointing) {
+        int cell = grid.getFaceIndex(x, y, pointing);
+        if (!grid.faceExists(x, y, pointing)) {
+            neighbourCounts[cell] = -1;
+            return;
+        }
+        boolean up = pointing == TriangleFace.POINTY_UP;
+        long a = TriangleGrid.getPackedVertexAtEndOfEdge(x, y, up ? 0 : 3);
+        long b = TriangleGrid.getPackedVertexAtEndOfEdge(x, y, up ? 1 : 4);
+        long c = TriangleGrid.getPackedVertexAtEndOfEdge(a, up ? 1 : 4);
+        int count = 0;
+        for (long node : new long[]{a, b, c}) {
+            int nodeX = PackedCoordinate.x(node);
+            int nodeY = PackedCoordinate.y(node);
+            if (grid.vertexExists(nodeX, nodeY) && grid.faceExists(nodeX, nodeY, !pointing))
+                neighbours[cell * 3 + count++] = grid.getFaceIndex(nodeX, nodeY, !pointing);
+        }
+        neighbourCounts[cell] = (byte) count;
+    }
+
+    public int getCellCount() {
+        return cellCount;
+    }
+
+    /**
+     * Checks whether an index is a cell; indices of faces removed by border trimming are not.
+     *
+     * @param cell The dense index.
+     * @return true if the index is a cell.
+     */
+    public boolean isCell(int cell) {
+        return neighbourCounts[cell] >= 0;
+    }
+
+    public int getNeighbourCount(int cell) {
+        return Math.max(0, neighbourCounts[cell]);
+    }
+
+    public int getNeighbour(int cell, int index) {
+        return neighbours[cell * stride + index];
+    }
+
+    /**
+     * Gets the number of steps taken.
+     *
+     * @return The generation, starting at 0.
+     */
+    public long getGeneration() {
+        return generation;
+    }
+
+    public int getState(int cell) {
+        return current[cell];
+    }
+
+    /**
+     * Sets the state of a cell, activating it and its neighbours for {@link #stepActive}.
+     *
+     * @param cell  The dense index of the cell.
+     * @param state The state.
+     */
+    public void setState(int cell, int state) {
+        current[cell] = state;
+        activateWithNeighbours(cell);
+    }
+
+    /**
+     * Gets the current states. The array is replaced by {@link #step}, so do not hold on to it across steps.
+     *
+     * @return The states, indexed by cell.
+     */
+    public int[] getStates() {
+        return current;
+    }
+
+    /**
+     * Sets every state and activates every cell.
+     *
+     * @param state The state.
+     */
+    public void fill(int state) {
+        Arrays.fill(current, state);
+        activateAll();
+    }
+
+    /**
+     * Marks every cell active, so the next {@link #stepActive} visits the whole grid.
+     */
+    public void activateAll() {
+        allActive = true;
+    }
+
+    /**
+     * Gets the number of cells the next {@link #stepActive} will visit, before neighbours of changes are added.
+     *
+     * @return The number of active cells.
+     */
+    public int getActiveCount() {
+        return allActive ? cellCount : activeCount;
+    }
+
+    /**
+     * Steps every cell on the calling thread.
+     *
+     * @param rule The rule.
+     */
+    public void step(CellRule rule) {
+        stepRows(rule, 0, (cellCount + rowLength - 1) / rowLength, new int[stride]);
+        finishStep();
+    }
+
+    /**
+     * Steps every cell, stepping bands of rows in parallel.
+     *
+     * @param rule       The rule.
+     * @param pool       The pool to run on.
+     * @param bandHeight The number of rows per band.
+     */
+    public void step(CellRule rule, ForkJoinPool pool, int bandHeight) {
+        if (bandHeight <= 0)
+            throw new IllegalArgumentException("bandHeight must be positive: " + bandHeight);
+        int rows = (cellCount + rowLength - 1) / rowLength;
+        int bands = (rows + bandHeight - 1) / bandHeight;
+        if (bands > 0)
+            pool.invoke(new BandTask(rule, bandHeight, 0, bands));
+        finishStep();
+    }
+
+    private void stepRows(CellRule rule, int firstRow, int endRow, int[] neighbourStates) {
+        int end = Math.min(cellCount, endRow * rowLength);
+        for (int cell = firstRow * rowLength; cell < end; cell++) {
+            next[cell] = nextState(rule, cell, neighbourStates);
+        }
+    }
+
+    private int nextState(CellRule rule, int cell, int[] neighbourStates) {
+        int count = neighbourCounts[cell];
+        if (count < 0)
+            return current[cell];
+        int offset = cell * stride;
+        for (int i = 0; i < count; i++) {
+            neighbourStates[i] = current[neighbours[offset + i]];
+        }
+        return rule.next(cell, current[cell], neighbourStates, count);
+    }
+
+    private void finishStep() {
+        int[] swap = current;
+        current = next;
+        next = swap;
+        generation++;
+        // Changes of a full step are not tracked, so the next sparse step has to look at everything
+        clearActive();
+        allActive = true;
+    }
+
+    /**
+     * Steps the active cells only: the cells that changed in the previous step or were set since, and their
+     * neighbours. Gives the same result as {@link #step(CellRule)} as long as the rule leaves a cell unchanged
+     * when neither it nor any neighbour changed.
+     *
+     * @param rule The rule.
+     * @return The number of cells that changed.
+     */
+    public int stepActive(CellRule rule) {
+        int[] cells;
+        int count;
+        if (allActive) {
+            cells = null;
+            count = cellCount;
+        } else {
+            cells = Arrays.copyOf(activeCells, activeCount);
+            count = activeCount;
+        }
+        clearActive();
+        allActive = false;
+
+        // Compute every next state before applying any, as the neighbours must see the current states
+        int[] neighbourStates = new int[stride];
+        int changed = 0;
+        int[] changedCells = new int[Math.min(count, 64)];
+        int[] changedStates = new int[changedCells.length];
+        for (int i = 0; i < count; i++) {
+            int cell = cells == null ? i : cells[i];
+            int state = nextState(rule, cell, neighbourStates);
+            if (state != current[cell]) {
+                if (changed == changedCells.length) {
+                    changedCells = Arrays.copyOf(changedCells, changed * 2);
+                    changedStates = Arrays.copyOf(changedStates, changed * 2);
+                }
+                changedCells[changed] = cell;
+                changedStates[changed++] = state;
+            }
+        }
+        for (int i = 0; i < changed; i++) {
+            current[changedCells[i]] = changedStates[i];
+            activateWithNeighbours(changedCells[i]);
+        }
+        generation++;
+        return changed;
+    }
+
+    private void activateWithNeighbours(int cell) {
+        if (allActive)
+            return;
+        activate(cell);
+        int offset = cell * stride;
+        for (int i = 0; i < neighbourCounts[cell]; i++) {
+            activate(neighbours[offset + i]);
+        }
+    }
+
+    private void activate(int cell) {
+        if (active[cell])
+            return;
+        active[cell] = true;
+        if (activeCount == activeCells.length)
+            activeCells = Arrays.copyOf(activeCells, activeCount * 2);
+        activeCells[activeCount++] = cell;
+    }
+
+    private void clearActive() {
+        for (int i = 0; i < activeCount; i++) {
+            active[activeCells[i]] = false;
+        }
+        activeCount = 0;
+    }
+
+    @SuppressWarnings("serial") // never serialized
+    private class BandTask extends RecursiveAction {
+        private final CellRule rule;
+        private final int bandHeight;
+        private final int firstBand;
+        private final int endBand;
+
+        BandTask(CellRule rule, int bandHeight, int firstBand, int endBand) {
+            this.rule = rule;
+            this.bandHeight = bandHeight;
+            this.firstBand = firstBand;
+            this.endBand = endBand;
+        }
+
+        @Override
+        protected void compute() {
+            if (endBand - firstBand == 1) {
+                stepRows(rule, firstBand * bandHeight, (firstBand + 1) * bandHeight, new int[stride]);
+                return;
+            }
+            int middle = (firstBand + endBand) >>> 1;
+            invokeAll(new BandTask(rule, bandHeight, firstBand, middle),
+                      new BandTask(rule, bandHeight, middle, endBand));
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package hextrigrid.grid.change;
+
+import hextrigrid.grid.attribute.ElementKind;
+import hextrigrid.grid.triangle.TriangleFace;
+
+/**
+ * Packs a changed grid element into a single {@code long}.
+ * <p>
+ * The two upper bits hold the {@link ElementKind}, the next two bits the edge index (edges) or the pointing of
+ * the face (faces, 1 for {@link TriangleFace#POINTY_DOWN}), and the remaining 60 bits the x- and y-coordinates,
+ * 30 bits each. Tiles use hexagon coordinates, the other kinds triangle coordinates. Coordinates must lie in
+ * {@code [0, 2^30)}, which covers every grid that fits in memory.
+ */
+public final class GridChange {
+    private static final int COORDINATE_BITS = 30;
+    private static final long COORDINATE_MASK = (1L << COORDINATE_BITS) - 1;
+    private static final ElementKind[] KINDS = ElementKind.values();
+
+    private GridChange() {
+    }
+
+    public static long tile(int x, int y) {
+        return pack(ElementKind.TILE, 0, x, y);
+    }
+
+    public static long vertex(int x, int y) {
+        return pack(ElementKind.VERTEX, 0, x, y);
+    }
+
+    public static long edge(int x, int y, int edgeIndex) {
+        return pack(ElementKind.EDGE, edgeIndex, x, y);
+    }
+
+    public static long face(int x, int y, boolean pointing) {
+        return pack(ElementKind.FACE, pointing == TriangleFace.POINTY_DOWN ? 1 : 0, x, y);
+    }
+
+    private static long pack(ElementKind kind, int subIndex, int x, int y) {
+        return (long) kind.ordinal() << 62 | (long) subIndex << 60
+               | (x & COORDINATE_MASK) << COORDINATE_BITS | (y & COORDINATE_MASK);
+    }
+
+    public static ElementKind kind(long change) {
+        return KINDS[(int) (change >>> 62)];
+    }
+
+    public static int x(long change) {
+        return (int) ((change >>> COORDINATE_BITS) & COORDINATE_MASK);
+    }
+
+    public static int y(long change) {
+        return (int) (change & COORDINATE_MASK);
+    }
+
+    /**
+     * @param change A packed edge change.
+     * @return The edge index (0-2).
+     */
+    public static int edgeIndex(long change) {
+        return (int) (change >>> 60) & 3;
+    }
+
+    /**
+     * @param change A packed face change.
+     * @return The pointing of the face.
+     */
+    public static boolean pointing(long change) {
+        return (((int) (change >>> 60) & 3) == 1) == TriangleFace.POINTY_DOWN;
+    }
+}
@@ -0,0 +1,53 @@
+package hextrigrid.grid.change;
+
+/**
+ * The changes recorded during one tick of a {@link GridChangeLog}, each element at most once.
+ * A batch is immutable and may be handed to other threads.
+ */
+public final class GridChangeBatch {
+    private final long tick;
+    private final long[] changes;
+    private final boolean overflowed;
+
+    GridChangeBatch(long tick, long[] changes, boolean overflowed) {
+        this.tick = tick;
+        this.changes = changes;
+        this.overflowed = overflowed;
+    }
+
+    /**
+     * @return The number of the tick the changes were recorded in, starting at 0.
+     */
+    public long getTick() {
+        return tick;
+    }
+
+    public int size() {
+        return changes.length;
+    }
+
+    public boolean isEmpty() {
+        return changes.length == 0 && !overflowed;
+    }
+
+    /**
+     * Gets a change, in the order it was first recorded.
+     *
+     * @param index The index of the change.
+     * @return The packed change (see {@link GridChange}).
+     */
+    public long get(int index) {
+        return changes[index];
+    }
+
+    /**
+     * Checks whether more elements changed than the log could hold, or a bulk write marked every element changed
+     * (see {@link GridChangeLog#allChanged}). The batch then only holds some of the changes, and consumers should
+     * treat the whole grid as changed.
+     *
+     * @return true if changes were lost.
+     */
+    public boolean isOverflowed() {
+        return overflowed;
+    }
+}
@@ -0,0 +1,8 @@
+package hextrigrid.grid.change;
+
+/**
+ * Receives the changes of a {@link GridChangeLog} once per tick.
+ */
+public interface GridChangeListener {
+    void changesFlushed(GridChangeBatch batch);
+}
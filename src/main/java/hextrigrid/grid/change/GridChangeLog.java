@@ -0,0 +1,253 @@
+package hextrigrid.grid.change;
+
+import hextrigrid.grid.attribute.ElementKind;
+import hextrigrid.grid.triangle.TriangleFace;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+
+/**
+ * Records which grid elements changed, so that consumers can update in proportion to the number of changes
+ * rather than the size of the grid.
+ * <p>
+ * Changes are reported through {@link #tileChanged}, {@link #vertexChanged}, {@link #edgeChanged},
+ * {@link #faceChanged} and {@link #indexChanged}. The state stores of the library report their writes
+ * automatically once a log is attached to them: attribute columns ({@code GridAttributes.setChangeLog}),
+ * {@code ConcurrentGridState.setChangeLog} and {@code OffHeapGrid.setChangeLog}. Writes made through their backing
+ * arrays or segments bypass the log and must be reported by hand. Changes are stored as packed longs
+ * (see {@link GridChange}) in a ring buffer, and repeated changes to the same element are coalesced until the tick
+ * ends. {@link #flush()} ends the tick and delivers its changes as one {@link GridChangeBatch} to every listener,
+ * either on the calling thread or on the configured {@link Executor}.
+ * <p>
+ * All methods are thread-safe, so concurrent stores may record into one log; recording takes a short lock.
+ */
+public class GridChangeLog {
+    private static final long EMPTY = -1L; // never a valid packed change: FACE with sub-index 3
+    public static final int DEFAULT_CAPACITY = 1 << 16;
+
+    private final long[] ring;
+    private final int mask;
+    private long head;
+    private long tail;
+    private boolean overflowed;
+    private long tick;
+
+    // Open addressing set of the changes recorded in the current tick
+    private final long[] recorded;
+    private final int recordedMask;
+
+    // Row lengths of the dense tile and vertex indices, 0 if unknown
+    private final int tileRowLength;
+    private final int vertexRowLength;
+
+    private final List<GridChangeListener> listeners = new CopyOnWriteArrayList<>();
+    private volatile Executor executor;
+
+    public GridChangeLog() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param capacity The maximum number of distinct changes per tick, rounded up to a power of two.
+     */
+    public GridChangeLog(int capacity) {
+        this(capacity, 0, 0);
+    }
+
+    /**
+     * Creates a log that can also record changes by dense element index (see {@link #indexChanged}).
+     *
+     * @param capacity        The maximum number of distinct changes per tick, rounded up to a power of two.
+     * @param tileRowLength   The number of tile indices per tile row, i.e. the grid width.
+     * @param vertexRowLength The number of vertex indices per triangle row, i.e. the triangle grid width.
+     */
+    public GridChangeLog(int capacity, int tileRowLength, int vertexRowLength) {
+        if (capacity <= 0 || capacity > 1 << 29)
+            throw new IllegalArgumentException("Capacity must be between 1 and 2^29: " + capacity);
+        int size = Integer.highestOneBit(capacity - 1) << 1;
+        if (size == 0)
+            size = 1;
+        ring = new long[size];
+        mask = size - 1;
+        recorded = new long[size * 2];
+        recordedMask = recorded.length - 1;
+        Arrays.fill(recorded, EMPTY);
+        this.tileRowLength = tileRowLength;
+        this.vertexRowLength = vertexRowLength;
+    }
+
+    public void tileChanged(int x, int y) {
+        record(GridChange.tile(x, y));
+    }
+
+    public void vertexChanged(int x, int y) {
+        record(GridChange.vertex(x, y));
+    }
+
+    public void edgeChanged(int x, int y, int edgeIndex) {
+        record(GridChange.edge(x, y, edgeIndex));
+    }
+
+    public void faceChanged(int x, int y, boolean pointing) {
+        record(GridChange.face(x, y, pointing));
+    }
+
+    /**
+     * Records a change to an element given by its dense index, as used by attribute columns.
+     *
+     * @param kind  The element kind.
+     * @param index The index of the element (see {@link ElementKind}).
+     * @throws IllegalStateException If the log was created without row lengths.
+     */
+    public void indexChanged(ElementKind kind, int index) {
+        if (tileRowLength <= 0 || vertexRowLength <= 0)
+            throw new IllegalStateException("Change log has no index layout");
+        switch (kind) {
+            case TILE:
+                tileChanged(index % tileRowLength, index / tileRowLength);
+                break;
+            case VERTEX:
+                vertexChanged(index % vertexRowLength, index / vertexRowLength);
+                break;
+            case EDGE:
+                int edgeVertex = index / 3;
+                edgeChanged(edgeVertex % vertexRowLength, edgeVertex / vertexRowLength, index % 3);
+                break;
+            default:
+                int faceVertex = index >> 1;
+                faceChanged(faceVertex % vertexRowLength, faceVertex / vertexRowLength,
+                            (index & 1) == 0 ? TriangleFace.POINTY_UP : TriangleFace.POINTY_DOWN);
+        }
+    }
+
+    /**
+     * Records changes to a range of element indices. Stops early once the log has overflowed.
+     *
+     * @param kind      The element kind.
+     * @param fromIndex The first index, inclusive.
+     * @param toIndex   The last index, exclusive.
+     */
+    public synchronized void rangeChanged(ElementKind kind, int fromIndex, int toIndex) {
+        for (int index = fromIndex; index < toIndex && !overflowed; index++) {
+            indexChanged(kind, index);
+        }
+    }
+
+    /**
+     * Records that every element may have changed, e.g. after a bulk fill or swap. The current tick is delivered
+     * as overflowed, so consumers treat the whole grid as changed.
+     */
+    public synchronized void allChanged() {
+        overflowed = true;
+    }
+
+    /**
+     * Records a packed change, ignoring it if the element already changed in this tick.
+     *
+     * @param change The packed change (see {@link GridChange}).
+     */
+    public synchronized void record(long change) {
+        if (overflowed)
+            return;
+        int slot = hash(change) & recordedMask;
+        while (recorded[slot] != EMPTY) {
+            if (recorded[slot] == change)
+                return;
+            slot = (slot + 1) & recordedMask;
+        }
+        if (tail - head == ring.length) {
+            overflowed = true;
+            return;
+        }
+        recorded[slot] = change;
+        ring[(int) (tail++ & mask)] = change;
+    }
+
+    /**
+     * @return The number of distinct changes recorded in the current tick.
+     */
+    public synchronized int getPendingCount() {
+        return (int) (tail - head);
+    }
+
+    /**
+     * @return The number of the current tick, starting at 0.
+     */
+    public synchronized long getTick() {
+        return tick;
+    }
+
+    /**
+     * Ends the current tick and hands its changes to the listeners. Listeners are called even when nothing changed.
+     *
+     * @return The batch that was delivered.
+     */
+    public GridChangeBatch flush() {
+        GridChangeBatch batch;
+        synchronized (this) {
+            long[] changes = new long[(int) (tail - head)];
+            for (int i = 0; i < changes.length; i++) {
+                long change = ring[(int) ((head + i) & mask)];
+                changes[i] = change;
+                forget(change);
+            }
+            head = tail;
+            batch = new GridChangeBatch(tick++, changes, overflowed);
+            overflowed = false;
+        }
+
+        // Listeners run outside the lock so they may record changes of their own
+
+        Executor executor = this.executor;
+        for (GridChangeListener listener : listeners) {
+            if (executor == null)
+                listener.changesFlushed(batch);
+            else
+                executor.execute(() -> listener.changesFlushed(batch));
+        }
+        return batch;
+    }
+
+    /**
+     * Discards the changes of the current tick without delivering them.
+     */
+    public synchronized void clear() {
+        while (head != tail) {
+            forget(ring[(int) (head++ & mask)]);
+        }
+        overflowed = false;
+    }
+
+    public void addListener(GridChangeListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(GridChangeListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Sets the executor listeners are called on.
+     *
+     * @param executor The executor, or {@code null} to call listeners on the thread calling {@link #flush()}.
+     */
+    public void setExecutor(Executor executor) {
+        this.executor = executor;
+    }
+
+    private void forget(long change) {
+        // Every entry of the tick is removed, so lookups may skip over the holes this leaves
+        int slot = hash(change) & recordedMask;
+        while (recorded[slot] != change) {
+            slot = (slot + 1) & recordedMask;
+        }
+        recorded[slot] = EMPTY;
+    }
+
+    private static int hash(long change) {
+        long h = change * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
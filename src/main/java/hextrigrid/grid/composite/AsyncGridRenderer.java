@@ -0,0 +1,292 @@
+package hextrigrid.grid.composite;
+
+import java.awt.*;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.NoninvertibleTransformException;
+import java.awt.image.BufferedImage;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Renders frames of a grid on a dedicated background thread, so that a slow frame never blocks the Swing
+ * Event Dispatch Thread.
+ * <p>
+ * The UI asks for a frame with {@link #requestFrame} and paints the latest completed one with {@link #drawFrame}.
+ * Only the most recent request is kept: requests that arrive while a frame is being rendered replace each other,
+ * so stale views are never rendered. Frames are drawn into at most three images, one being rendered, one completed
+ * but not yet painted, and one being painted, so neither thread waits for the other. While a frame for the current
+ * view is still being rendered, {@link #drawFrame} shows the previous frame moved to the current view, which keeps
+ * panning and zooming responsive.
+ * <p>
+ * The renderer's drawing hooks are called from the render thread.
+ */
+public final class AsyncGridRenderer implements AutoCloseable {
+    private final CompositeGridRenderer renderer;
+    private final Map<RenderingHints.Key, Object> renderingHints = new HashMap<>();
+    private final Thread renderThread;
+    /** Latest request not yet taken by the render thread */
+    private final AtomicReference<FrameRequest> pendingRequest = new AtomicReference<>();
+    private final AtomicLong droppedRequests = new AtomicLong();
+    private final AtomicLong droppedFrames = new AtomicLong();
+    private final AtomicLong renderedFrames = new AtomicLong();
+    private volatile Runnable frameListener;
+    private volatile boolean closed;
+
+    // Buffers, guarded by bufferLock
+    private final Object bufferLock = new Object();
+    private final ArrayDeque<Frame> freeFrames = new ArrayDeque<>();
+    private Frame readyFrame;
+    private Frame displayedFrame;
+    private FrameRequest lastRequest;
+
+    /**
+     * Constructs an asynchronous renderer and starts its render thread.
+     *
+     * @param renderer The renderer used to draw each frame.
+     */
+    public AsyncGridRenderer(CompositeGridRenderer renderer) {
+        this.renderer = renderer;
+        this.renderThread = new Thread(this::renderLoop, "grid-render");
+        renderThread.setDaemon(true);
+        renderThread.start();
+    }
+
+    /**
+     * Sets a rendering hint applied to every frame, e.g. antialiasing. Takes effect from the next frame.
+     *
+     * @param key   The hint key.
+     * @param value The hint value.
+     */
+    public void setRenderingHint(RenderingHints.Key key, Object value) {
+        synchronized (renderingHints) {
+            renderingHints.put(key, value);
+        }
+    }
+
+    /**
+     * Sets the action run on the render thread after each completed frame, typically {@code component::repaint}.
+     *
+     * @param frameListener The action, or {@code null} for none.
+     */
+    public void setFrameListener(Runnable frameListener) {
+        this.frameListener = frameListener;
+    }
+
+    /**
+     * Asks for a frame of the given size and view. Returns immediately. A request equal to the previous one is
+     * ignored, so this can be called on every paint; use {@link #invalidate} after the grid changed.
+     *
+     * @param width     The frame width in pixels.
+     * @param height    The frame height in pixels.
+     * @param transform The transform from the renderer's user space to frame pixels.
+     */
+    public void requestFrame(int width, int height, AffineTransform transform) {
+        if (width <= 0 || height <= 0)
+            return;
+        FrameRequest request = new FrameRequest(width, height, new AffineTransform(transform));
+        synchronized (bufferLock) {
+            if (request.equals(lastRequest))
+                return;
+            lastRequest = request;
+        }
+        submit(request);
+    }
+
+    /**
+     * Renders the last requested frame again, e.g. after tiles, edges or vertices changed.
+     */
+    public void invalidate() {
+        FrameRequest request;
+        synchronized (bufferLock) {
+            request = lastRequest;
+        }
+        if (request != null)
+            submit(request);
+    }
+
+    private void submit(FrameRequest request) {
+        if (pendingRequest.getAndSet(request) != null)
+            droppedRequests.incrementAndGet();
+        LockSupport.unpark(renderThread);
+    }
+
+    /**
+     * Paints the latest completed frame. If it was rendered for another view, it is transformed to the given one.
+     * Frame pixels are drawn in the device space of the Graphics2D object, so its transform should be the identity
+     * or only the device scale. Must be called from a single thread, normally the EDT.
+     *
+     * @param g2d       The Graphics2D object to paint onto.
+     * @param transform The current transform from the renderer's user space to frame pixels.
+     * @return {@code true} if a frame was painted, {@code false} if none has completed yet.
+     */
+    public boolean drawFrame(Graphics2D g2d, AffineTransform transform) {
+        Frame frame = acquireDisplayedFrame();
+        if (frame == null)
+            return false;
+
+        AffineTransform imageTransform = new AffineTransform(transform);
+        try {
+            imageTransform.concatenate(frame.transform.createInverse());
+        } catch (NoninvertibleTransformException e) {
+            imageTransform.setToIdentity();
+        }
+        g2d.drawImage(frame.image, imageTransform, null);
+        return true;
+    }
+
+    /**
+     * Makes the newest completed frame the displayed one, recycling the frame it replaces.
+     */
+    private Frame acquireDisplayedFrame() {
+        synchronized (bufferLock) {
+            if (readyFrame != null) {
+                if (displayedFrame != null)
+                    freeFrames.push(displayedFrame);
+                displayedFrame = readyFrame;
+                readyFrame = null;
+            }
+            return displayedFrame;
+        }
+    }
+
+    private Frame acquireRenderFrame(int width, int height) {
+        synchronized (bufferLock) {
+            Frame frame = freeFrames.poll();
+            // Keep buffers whose size matches, the others are reallocated below
+            if (frame != null && frame.image.getWidth() == width && frame.image.getHeight() == height)
+                return frame;
+        }
+        return new Frame(new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB_PRE));
+    }
+
+    private void publish(Frame frame) {
+        synchronized (bufferLock) {
+            if (readyFrame != null) {
+                // Completed but never painted: a newer frame supersedes it
+                freeFrames.push(readyFrame);
+                droppedFrames.incrementAndGet();
+            }
+            readyFrame = frame;
+        }
+        renderedFrames.incrementAndGet();
+        Runnable listener = frameListener;
+        if (listener != null)
+            listener.run();
+    }
+
+    private void renderLoop() {
+        while (!closed) {
+            FrameRequest request = pendingRequest.getAndSet(null);
+            if (request == null) {
+                LockSupport.park(this);
+                continue;
+            }
+            try {
+                Frame frame = acquireRenderFrame(request.width, request.height);
+                render(frame, request);
+                publish(frame);
+            } catch (RuntimeException e) {
+                // Report and keep serving requests rather than leaving the UI without frames
+                Thread.UncaughtExceptionHandler handler = Thread.currentThread().getUncaughtExceptionHandler();
+                handler.uncaughtException(Thread.currentThread(), e);
+            }
+        }
+    }
+
+    private void render(Frame frame, FrameRequest request) {
+        Graphics2D g = frame.image.createGraphics();
+        try {
+            g.setComposite(AlphaComposite.Clear);
+            g.fillRect(0, 0, request.width, request.height);
+            g.setComposite(AlphaComposite.SrcOver);
+            synchronized (renderingHints) {
+                g.addRenderingHints(renderingHints);
+            }
+            g.clipRect(0, 0, request.width, request.height);
+            g.transform(request.transform);
+            renderer.drawGrid(g);
+        } finally {
+            g.dispose();
+        }
+        frame.transform = request.transform;
+    }
+
+    /**
+     * Gets the number of requests replaced by a newer one before rendering started.
+     *
+     * @return The number of dropped requests.
+     */
+    public long getDroppedRequestCount() {
+        return droppedRequests.get();
+    }
+
+    /**
+     * Gets the number of completed frames replaced by a newer one before they were painted.
+     *
+     * @return The number of dropped frames.
+     */
+    public long getDroppedFrameCount() {
+        return droppedFrames.get();
+    }
+
+    /**
+     * Gets the number of frames rendered so far.
+     *
+     * @return The number of rendered frames.
+     */
+    public long getRenderedFrameCount() {
+        return renderedFrames.get();
+    }
+
+    /**
+     * Stops the render thread. A frame being rendered is completed first; pending requests are discarded.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        LockSupport.unpark(renderThread);
+    }
+
+    /**
+     * An image and the transform it was rendered with.
+     */
+    private static final class Frame {
+        final BufferedImage image;
+        AffineTransform transform;
+
+        Frame(BufferedImage image) {
+            this.image = image;
+        }
+    }
+
+    private static final class FrameRequest {
+        final int width;
+        final int height;
+        final AffineTransform transform;
+
+        FrameRequest(int width, int height, AffineTransform transform) {
+            this.width = width;
+            this.height = height;
+            this.transform = transform;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o)
+                return true;
+            if (!(o instanceof FrameRequest))
+                return false;
+            FrameRequest other = (FrameRequest) o;
+            return width == other.width && height == other.height && transform.equals(other.transform);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * (31 * width + height) + transform.hashCode();
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package hextrigrid.grid.composite;
+
+/**
+ * Persistence hook for a {@link ChunkedCompositeGrid}.
+ * Chunks evicted from the cache are handed to {@link #save}, and {@link #load} is consulted before a chunk is created.
+ */
+public interface ChunkStore {
+    /**
+     * Loads a previously saved chunk.
+     *
+     * @param chunkX The chunk column.
+     * @param chunkY The chunk row.
+     * @return The chunk, or {@code null} if none was saved and a fresh chunk should be created.
+     */
+    GridChunk load(int chunkX, int chunkY);
+
+    /**
+     * Saves a chunk that is being evicted from the cache.
+     *
+     * @param chunk The evicted chunk.
+     */
+    void save(GridChunk chunk);
+}
@@ -0,0 +1,249 @@
+package hextrigrid.grid.composite;
+
+import hextrigrid.grid.Edge;
+import hextrigrid.grid.PackedCoordinate;
+import hextrigrid.grid.Tile;
+import hextrigrid.grid.Vertex;
+import hextrigrid.grid.triangle.TriangleCoordinate;
+import hextrigrid.grid.triangle.TriangleFace;
+import hextrigrid.grid.triangle.TriangleGrid;
+import hextrigrid.grid.triangle.TriangleGridNode;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * An effectively unbounded composite grid that materializes fixed-size chunks on first access.
+ * <p>
+ * Hexagonal tiles are grouped into chunks of {@code chunkWidth} x {@code chunkHeight} tiles, and the triangle nodes
+ * into matching chunks of {@code 3 * chunkWidth / 2} x {@code 2 * chunkHeight} nodes. At most
+ * {@code maximumLoadedChunks} chunks are held; the least recently used chunk is evicted and handed to the
+ * {@link ChunkStore}, if one is set. All topology (hexagon centres, edge directions, adjacent tiles) is computed
+ * from global coordinates, so it is unaffected by chunk borders.
+ * <p>
+ * This class is not thread-safe.
+ */
+public class ChunkedCompositeGrid {
+    private final int chunkWidth;
+    private final int chunkHeight;
+    private final int nodeChunkWidth;
+    private final int nodeChunkHeight;
+    private final int maximumLoadedChunks;
+    private final ChunkStore store;
+    /** Loaded chunks keyed by packed chunk coordinate, in access order */
+    private final LinkedHashMap<Long, GridChunk> chunks;
+    /** Most recently used chunk, checked before the map */
+    private GridChunk lastChunk;
+
+    /**
+     * Construct a chunked grid without persistence. Evicted chunks are discarded and recreated on the next access.
+     *
+     * @param chunkWidth          The number of hexagonal columns per chunk (must be even).
+     * @param chunkHeight         The number of hexagonal rows per chunk.
+     * @param maximumLoadedChunks The maximum number of chunks held in memory.
+     */
+    public ChunkedCompositeGrid(int chunkWidth, int chunkHeight, int maximumLoadedChunks) {
+        this(chunkWidth, chunkHeight, maximumLoadedChunks, null);
+    }
+
+    /**
+     * Construct a chunked grid.
+     *
+     * @param chunkWidth          The number of hexagonal columns per chunk (must be even).
+     * @param chunkHeight         The number of hexagonal rows per chunk.
+     * @param maximumLoadedChunks The maximum number of chunks held in memory.
+     * @param store               The store loading and saving chunks, or {@code null}.
+     */
+    public ChunkedCompositeGrid(int chunkWidth, int chunkHeight, int maximumLoadedChunks, ChunkStore store) {
+        if (chunkWidth <= 0 || (chunkWidth & 1) != 0)
+            throw new IllegalArgumentException("chunkWidth must be a positive even number: " + chunkWidth);
+        if (chunkHeight <= 0)
+            throw new IllegalArgumentException("chunkHeight must be positive: " + chunkHeight);
+        if (maximumLoadedChunks <= 0)
+            throw new IllegalArgumentException("maximumLoadedChunks must be positive: " + maximumLoadedChunks);
+
+        this.chunkWidth = chunkWidth;
+        this.chunkHeight = chunkHeight;
+        this.nodeChunkWidth = nodeColumnsPerChunk(chunkWidth);
+        this.nodeChunkHeight = nodeRowsPerChunk(chunkHeight);
+        this.maximumLoadedChunks = maximumLoadedChunks;
+        this.store = store;
+        this.chunks = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, GridChunk> eldest) {
+                if (size() <= ChunkedCompositeGrid.this.maximumLoadedChunks)
+                    return false;
+                evict(eldest.getValue());
+                return true;
+            }
+        };
+    }
+
+    static int nodeColumnsPerChunk(int chunkWidth) {
+        return (3 * chunkWidth) / 2;
+    }
+
+    static int nodeRowsPerChunk(int chunkHeight) {
+        return 2 * chunkHeight;
+    }
+
+    /**
+     * Determines if a given (x, y) triangle coordinate corresponds to the center of a hexagon.
+     *
+     * @param x The x-coordinate.
+     * @param y The y-coordinate.
+     * @return {@code true} if the coordinate is a hexagon center; otherwise, {@code false}.
+     */
+    public boolean isHexagonCentre(int x, int y) {
+        return TriangleCoordinate.isHexagonCentre(x, y);
+    }
+
+    /**
+     * Retrieves the hexagonal tile at a specified (x, y) coordinate, loading its chunk if needed.
+     *
+     * @param x The x-coordinate.
+     * @param y The y-coordinate.
+     * @return The tile at the specified position.
+     */
+    public Tile getHexagonTile(int x, int y) {
+        return getChunk(Math.floorDiv(x, chunkWidth), Math.floorDiv(y, chunkHeight)).getTile(x, y);
+    }
+
+    /**
+     * Gets the triangle node at the specified (x, y) position, loading its chunk if needed.
+     *
+     * @param x The x-coordinate of the node.
+     * @param y The y-coordinate of the node.
+     * @return The node at the given coordinates.
+     */
+    public TriangleGridNode getNode(int x, int y) {
+        return getChunk(Math.floorDiv(x, nodeChunkWidth), Math.floorDiv(y, nodeChunkHeight)).getNode(x, y);
+    }
+
+    /**
+     * Gets the neighboring node at the specified (x, y) position and direction.
+     *
+     * @param x                     The x-coordinate of the node.
+     * @param y                     The y-coordinate of the node.
+     * @param hexagonDirectionIndex The direction index (0-5).
+     * @return The neighboring node.
+     */
+    public TriangleGridNode getNodeAtEndOfEdge(int x, int y, int hexagonDirectionIndex) {
+        long end = TriangleGrid.getPackedVertexAtEndOfEdge(x, y, hexagonDirectionIndex);
+        return getNode(PackedCoordinate.x(end), PackedCoordinate.y(end));
+    }
+
+    public Vertex getVertex(int x, int y) {
+        return getNode(x, y).vertex;
+    }
+
+    public Edge getEdge(int x, int y, int edgeIndex) {
+        return getNode(x, y).edges[edgeIndex];
+    }
+
+    public TriangleFace getFace(int x, int y, boolean pointing) {
+        TriangleGridNode node = getNode(x, y);
+        return pointing == TriangleFace.POINTY_UP ? node.faceUp : node.faceDown;
+    }
+
+    /**
+     * Retrieves the hexagonal tiles adjacent to a given edge in the triangular grid.
+     *
+     * @param x         The x-coordinate of the triangle edge.
+     * @param y         The y-coordinate of the triangle edge.
+     * @param edgeIndex The index of the edge (0-2 in a triangle).
+     * @return An array containing the two adjacent hexagonal tiles (the same tile twice for an edge inside a hexagon).
+     * @see CompositeGrid#getAdjacentTilesOfEdge(int, int, int)
+     */
+    public Tile[] getAdjacentTilesOfEdge(int x, int y, int edgeIndex) {
+        long[] coordinates = new long[2];
+        int count = getAdjacentTilesOfEdge(x, y, edgeIndex, coordinates);
+        Tile tileA = getHexagonTile(PackedCoordinate.x(coordinates[0]), PackedCoordinate.y(coordinates[0]));
+        Tile tileB = count == 1 ? tileA : getHexagonTile(PackedCoordinate.x(coordinates[1]), PackedCoordinate.y(coordinates[1]));
+        return new Tile[]{tileA, tileB};
+    }
+
+    /**
+     * Allocation-free equivalent of {@link #getAdjacentTilesOfEdge(int, int, int)}. Does not load any chunk.
+     *
+     * @param x         The x-coordinate of the triangle edge.
+     * @param y         The y-coordinate of the triangle edge.
+     * @param edgeIndex The index of the edge (0-2 in a triangle).
+     * @param out       Buffer receiving one or two packed hexagon coordinates.
+     * @return The number of coordinates written.
+     */
+    public int getAdjacentTilesOfEdge(int x, int y, int edgeIndex, long[] out) {
+        return CompositeGrid.getPackedAdjacentTilesOfEdge(x, y, edgeIndex, out);
+    }
+
+    /**
+     * Retrieves a chunk, loading it from the store or creating it if it is not held in memory.
+     *
+     * @param chunkX The chunk column.
+     * @param chunkY The chunk row.
+     * @return The chunk.
+     */
+    public GridChunk getChunk(int chunkX, int chunkY) {
+        GridChunk chunk = lastChunk;
+        if (chunk != null && chunk.getChunkX() == chunkX && chunk.getChunkY() == chunkY)
+            return chunk;
+
+        Long key = PackedCoordinate.pack(chunkX, chunkY);
+        chunk = chunks.get(key);
+        if (chunk == null) {
+            if (store != null)
+                chunk = store.load(chunkX, chunkY);
+            if (chunk == null)
+                chunk = new GridChunk(chunkX, chunkY, chunkWidth, chunkHeight);
+            chunks.put(key, chunk);
+        }
+        lastChunk = chunk;
+        return chunk;
+    }
+
+    /**
+     * Checks whether a chunk is currently held in memory, without loading it or changing its eviction order.
+     *
+     * @param chunkX The chunk column.
+     * @param chunkY The chunk row.
+     * @return {@code true} if the chunk is loaded.
+     */
+    public boolean isChunkLoaded(int chunkX, int chunkY) {
+        return chunks.containsKey(PackedCoordinate.pack(chunkX, chunkY));
+    }
+
+    /**
+     * Gets the number of chunks currently held in memory.
+     *
+     * @return The number of loaded chunks.
+     */
+    public int getLoadedChunkCount() {
+        return chunks.size();
+    }
+
+    /**
+     * Hands every loaded chunk to the store without evicting it.
+     */
+    public void flush() {
+        if (store == null)
+            return;
+        for (GridChunk chunk : chunks.values()) {
+            store.save(chunk);
+        }
+    }
+
+    private void evict(GridChunk chunk) {
+        if (lastChunk == chunk)
+            lastChunk = null;
+        if (store != null)
+            store.save(chunk);
+    }
+
+    public int getChunkWidth() {
+        return chunkWidth;
+    }
+
+    public int getChunkHeight() {
+        return chunkHeight;
+    }
+}
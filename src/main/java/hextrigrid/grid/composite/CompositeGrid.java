@@ -1,9 +1,17 @@
 package hextrigrid.grid.composite;
 
+import hextrigrid.grid.PackedCoordinate;
 import hextrigrid.grid.Tile;
+import hextrigrid.grid.change.GridChangeLog;
+import hextrigrid.grid.metrics.GridConstructionEvent;
+import hextrigrid.grid.metrics.GridCounter;
+import hextrigrid.grid.metrics.GridMetrics;
+import hextrigrid.grid.triangle.TriangleCoordinate;
 import hextrigrid.grid.triangle.TriangleGrid;
 
 import java.awt.*;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
 
 /**
  * Represents a composite grid combining hexagonal and triangular structures.
@@ -13,7 +21,33 @@ public class CompositeGrid {
     private final TriangleGrid triangleGrid;
     private final int gridWidth;
     private final int gridHeight;
-    private final Tile[][] hexagonTiles;
+    // Tiles in row-major order (see getTileIndex), created on first access.
+    private final Tile[] hexagonTiles;
+    private static final VarHandle TILES = MethodHandles.arrayElementVarHandle(Tile[].class);
+    // Created on first access, see getChangeLog.
+    private volatile GridChangeLog changeLog;
+    private static final VarHandle CHANGE_LOG;
+
+    static {
+        try {
+            CHANGE_LOG = MethodHandles.lookup().findVarHandle(CompositeGrid.class, "changeLog", GridChangeLog.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    // Hexagon neighbour differences (for even and odd columns), in the order N, NE, SE, S, SW, NW.
+    // Direction d crosses the border between hexagon vertices d and d + 1.
+    public static final int[][][] hexagonDirectionDifferences = {
+            // even columns
+            {
+                    {0, -1}, {+1, -1}, {+1, 0}, {0, +1}, {-1, 0}, {-1, -1}
+            },
+            // odd columns
+            {
+                    {0, -1}, {+1, 0}, {+1, +1}, {0, +1}, {-1, +1}, {-1, 0}
+            }
+    };
 
     /**
      * Construct a composite grid with the given width and height.
@@ -22,24 +56,53 @@ public class CompositeGrid {
      * @param gridHeight The number of hexagonal rows in the grid.
      */
     public CompositeGrid(int gridWidth, int gridHeight) {
+        this(gridWidth, gridHeight, false);
+    }
+
+    /**
+     * Construct a composite grid with the given width and height, optionally backed by a compact TriangleGrid.
+     *
+     * @param gridWidth  The number of hexagonal columns in the grid.
+     * @param gridHeight The number of hexagonal rows in the grid.
+     * @param compact    {@code true} to store the triangle grid as dense indices instead of node objects.
+     * @see TriangleGrid#TriangleGrid(int, int, boolean)
+     */
+    public CompositeGrid(int gridWidth, int gridHeight, boolean compact) {
+        GridConstructionEvent event = new GridConstructionEvent();
+        event.begin();
         this.gridWidth = gridWidth;
         this.gridHeight = gridHeight;
         // Creates a TriangleGrid with adjusted dimensions to fit the hexagonal layout.
-        this.triangleGrid = new TriangleGrid(2 + gridWidth + ((gridWidth - 1) / 2), (gridHeight * 2) + 2);
-        hexagonTiles = new Tile[gridHeight][];
-        createGrid();
+        this.triangleGrid = new TriangleGrid(getTriangleGridWidth(gridWidth), getTriangleGridHeight(gridHeight), compact);
+        hexagonTiles = new Tile[gridWidth * gridHeight];
+        event.end();
+        if (event.shouldCommit()) {
+            event.gridType = "CompositeGrid";
+            event.width = gridWidth;
+            event.height = gridHeight;
+            event.compact = compact;
+            event.commit();
+        }
     }
 
     /**
-     * Initializes the hexagonal grid structure by creating tile instances.
+     * Gets the width of the triangle grid embedding a hexagonal grid with the given number of columns.
+     *
+     * @param gridWidth The number of hexagonal columns.
+     * @return The number of triangle grid vertices in the horizontal direction.
      */
-    private void createGrid() {
-        for (int y = 0; y < gridHeight; y++) {
-            hexagonTiles[y] = new Tile[gridWidth];
-            for (int x = 0; x < gridWidth; x++) {
-                hexagonTiles[y][x] = new Tile();
-            }
-        }
+    public static int getTriangleGridWidth(int gridWidth) {
+        return 2 + gridWidth + ((gridWidth - 1) / 2);
+    }
+
+    /**
+     * Gets the height of the triangle grid embedding a hexagonal grid with the given number of rows.
+     *
+     * @param gridHeight The number of hexagonal rows.
+     * @return The number of triangle grid vertices in the vertical direction.
+     */
+    public static int getTriangleGridHeight(int gridHeight) {
+        return (gridHeight * 2) + 2;
     }
 
     /**
@@ -50,11 +113,13 @@ public class CompositeGrid {
      * @return {@code true} if the coordinate is a hexagon center; otherwise, {@code false}.
      */
     public boolean isHexagonCentre(int x, int y) {
-        return (x % 3 == 1 && y % 2 == 1) || (x % 3 == 2 && y % 2 == 0);
+        return TriangleCoordinate.isHexagonCentre(x, y);
     }
 
     /**
      * Retrieves the hexagonal tile at a specified (x, y) coordinate.
+     * Tiles are created on first access; every call for the same coordinate returns the same tile,
+     * also when called concurrently.
      *
      * @param x The x-coordinate.
      * @param y The y-coordinate.
@@ -64,7 +129,101 @@ public class CompositeGrid {
         if (y < 0 || y >= gridHeight || x < 0 || x >= gridWidth) {
             return null;
         }
-        return hexagonTiles[y][x];
+        GridMetrics.increment(GridCounter.TILE_QUERIES);
+        int index = getTileIndex(x, y);
+        Tile tile = (Tile) TILES.getAcquire(hexagonTiles, index);
+        if (tile == null) {
+            Tile created = new Tile();
+            tile = (Tile) TILES.compareAndExchangeRelease(hexagonTiles, index, null, created);
+            if (tile == null) {
+                GridMetrics.increment(GridCounter.TILE_CREATIONS);
+                tile = created;
+            }
+        }
+        return tile;
+    }
+
+    /**
+     * Gets the number of hexagonal columns in the grid.
+     *
+     * @return The width of the grid.
+     */
+    public int getWidth() {
+        return gridWidth;
+    }
+
+    /**
+     * Gets the number of hexagonal rows in the grid.
+     *
+     * @return The height of the grid.
+     */
+    public int getHeight() {
+        return gridHeight;
+    }
+
+    /**
+     * Gets the dense index of a tile. Tile indices run from 0 to {@link #getTileCount()} - 1 in row-major order.
+     *
+     * @param x The x-coordinate.
+     * @param y The y-coordinate.
+     * @return The tile index.
+     */
+    public int getTileIndex(int x, int y) {
+        return y * gridWidth + x;
+    }
+
+    /**
+     * Gets the number of tiles in the grid.
+     *
+     * @return width * height.
+     */
+    public int getTileCount() {
+        return gridWidth * gridHeight;
+    }
+
+    /**
+     * Checks whether a hexagonal tile exists at a specified (x, y) coordinate.
+     *
+     * @param x The x-coordinate.
+     * @param y The y-coordinate.
+     * @return {@code true} if the coordinate is inside the grid.
+     */
+    public boolean containsHexagonTile(int x, int y) {
+        return y >= 0 && y < gridHeight && x >= 0 && x < gridWidth;
+    }
+
+    /**
+     * Returns the coordinate of the hexagon adjacent to the given hexagon in the given direction.
+     *
+     * @param x         The x-coordinate of the hexagon.
+     * @param y         The y-coordinate of the hexagon.
+     * @param direction The direction index (0-5, see {@link #hexagonDirectionDifferences}).
+     * @return The packed coordinate of the neighbouring hexagon, which may lie outside the grid.
+     */
+    public static long getPackedAdjacentTile(int x, int y, int direction) {
+        int[] diff = hexagonDirectionDifferences[x & 1][direction];
+        return PackedCoordinate.pack(x + diff[0], y + diff[1]);
+    }
+
+    /**
+     * Returns the change log of this grid. State stores record into it once it is attached to them, e.g. with
+     * {@link hextrigrid.grid.attribute.GridAttributes#setChangeLog}; it can also record elements by dense index.
+     * The log is created on first access; every call returns the same log, also when called concurrently.
+     *
+     * @return The change log.
+     */
+    public GridChangeLog getChangeLog() {
+        GridChangeLog log = changeLog;
+        if (log == null) {
+            // A tick can't hold more distinct changes than there are elements
+            long elementCount = (long) gridWidth * gridHeight + 6L * triangleGrid.getVertexCount();
+            GridChangeLog created = new GridChangeLog((int) Math.max(1, Math.min(GridChangeLog.DEFAULT_CAPACITY, elementCount)),
+                                                      gridWidth, triangleGrid.getWidth());
+            log = (GridChangeLog) CHANGE_LOG.compareAndExchange(this, null, created);
+            if (log == null)
+                log = created;
+        }
+        return log;
     }
 
     /**
@@ -85,6 +244,7 @@ public class CompositeGrid {
      * @return An array containing one or two adjacent hexagonal tiles.
      */
     public Tile[] getAdjacentTilesOfEdge(int x, int y, int edgeIndex){
+        GridMetrics.increment(GridCounter.ALLOCATING_ADJACENT_TILE_QUERIES);
         Tile tileA;
         Tile tileB;
         Point endOfEdge = TriangleGrid.getVertexCoordinateAtEndOfEdge(x, y, edgeIndex);
@@ -92,22 +252,86 @@ public class CompositeGrid {
         //if edge starts in a hexagon centre
         if (isHexagonCentre(x, y)){
             //then return only one adjacent hexagon (the edge start hexagon)
-            tileA = getHexagonTile(x, y);
+            tileA = getHexagonTileAtCentre(x, y);
             tileB = tileA;
         }
         //if edge finishes in a hexagon centre
         else if (isHexagonCentre(endOfEdge.x, endOfEdge.y)){
             //then return only one adjacent hexagon (the edge finish hexagon)
-            tileA = getHexagonTile(endOfEdge.x, endOfEdge.y);
+            tileA = getHexagonTileAtCentre(endOfEdge.x, endOfEdge.y);
             tileB = tileA;
         }
         //else, on a hexagon border return both hexagons that are on the opposite vertices of the edge
         else{
             Point[] oppositeCoordinates = TriangleGrid.getOppositeCoordinatesOfEdge(x, y, edgeIndex);
-            tileA = getHexagonTile(oppositeCoordinates[0].x, oppositeCoordinates[0].y);
-            tileB = getHexagonTile(oppositeCoordinates[1].x, oppositeCoordinates[1].y);
+            tileA = getHexagonTileAtCentre(oppositeCoordinates[0].x, oppositeCoordinates[0].y);
+            tileB = getHexagonTileAtCentre(oppositeCoordinates[1].x, oppositeCoordinates[1].y);
         }
 
         return new Tile[]{tileA, tileB};
     }
+
+    /**
+     * Allocation-free equivalent of {@link #getAdjacentTilesOfEdge(int, int, int)}.
+     * Writes the packed hexagon coordinates of the adjacent tiles into a caller supplied buffer.
+     * The coordinates are written even when they lie outside the grid; use {@link #containsHexagonTile} to filter them.
+     *
+     * @param x         The x-coordinate of the triangle edge.
+     * @param y         The y-coordinate of the triangle edge.
+     * @param edgeIndex The index of the edge (0-2 in a triangle).
+     * @param out       Buffer receiving one or two packed hexagon coordinates.
+     * @return The number of coordinates written: 1 for an edge inside a hexagon, 2 for an edge on a hexagon border.
+     */
+    public int getAdjacentTilesOfEdge(int x, int y, int edgeIndex, long[] out) {
+        GridMetrics.increment(GridCounter.PACKED_ADJACENT_TILE_QUERIES);
+        return getPackedAdjacentTilesOfEdge(x, y, edgeIndex, out);
+    }
+
+    /**
+     * Computes the packed coordinates of the hexagons adjacent to an edge.
+     * The result depends only on the coordinates, so it is shared by every grid with this layout.
+     *
+     * @param x         The x-coordinate of the triangle edge.
+     * @param y         The y-coordinate of the triangle edge.
+     * @param edgeIndex The index of the edge (0-2 in a triangle).
+     * @param out       Buffer receiving one or two packed hexagon coordinates.
+     * @return The number of coordinates written.
+     * @see #getAdjacentTilesOfEdge(int, int, int, long[])
+     */
+    public static int getPackedAdjacentTilesOfEdge(int x, int y, int edgeIndex, long[] out) {
+        //if edge starts in a hexagon centre
+        if (TriangleCoordinate.isHexagonCentre(x, y)) {
+            out[0] = TriangleCoordinate.getPackedHexagonCoordinate(x, y);
+            return 1;
+        }
+
+        //if edge finishes in a hexagon centre
+        long endOfEdge = TriangleGrid.getPackedVertexAtEndOfEdge(x, y, edgeIndex);
+        int endX = PackedCoordinate.x(endOfEdge);
+        int endY = PackedCoordinate.y(endOfEdge);
+        if (TriangleCoordinate.isHexagonCentre(endX, endY)) {
+            out[0] = TriangleCoordinate.getPackedHexagonCoordinate(endX, endY);
+            return 1;
+        }
+
+        //else, on a hexagon border the opposite vertices of the edge are the two hexagon centres
+        TriangleGrid.getPackedOppositeCoordinatesOfEdge(x, y, edgeIndex, out);
+        out[0] = TriangleCoordinate.getPackedHexagonCoordinate(PackedCoordinate.x(out[0]), PackedCoordinate.y(out[0]));
+        out[1] = TriangleCoordinate.getPackedHexagonCoordinate(PackedCoordinate.x(out[1]), PackedCoordinate.y(out[1]));
+        return 2;
+    }
+
+    /**
+     * Retrieves the hexagonal tile whose centre is at a triangle coordinate.
+     *
+     * @param x The triangle x-coordinate of the hexagon centre.
+     * @param y The triangle y-coordinate of the hexagon centre.
+     * @return The tile, or {@code null} if out of bounds.
+     */
+    private Tile getHexagonTileAtCentre(int x, int y) {
+        if (x < 0 || y < 0)
+            return null;
+        long hexagonCoordinate = TriangleCoordinate.getPackedHexagonCoordinate(x, y);
+        return getHexagonTile(PackedCoordinate.x(hexagonCoordinate), PackedCoordinate.y(hexagonCoordinate));
+    }
 }
\ No newline at end of file
@@ -1,18 +1,26 @@
 package hextrigrid.grid.composite;
 
+import hextrigrid.grid.PackedCoordinate;
 import hextrigrid.grid.Tile;
 import hextrigrid.grid.triangle.TriangleCoordinate;
 import hextrigrid.grid.Edge;
 import hextrigrid.grid.triangle.TriangleGrid;
 import hextrigrid.grid.triangle.TriangleGridNode;
 import hextrigrid.grid.Vertex;
+import hextrigrid.grid.metrics.RenderPassEvent;
 
 import java.awt.*;
 import java.awt.geom.AffineTransform;
+import java.awt.geom.Ellipse2D;
 import java.awt.geom.Path2D;
 import java.awt.geom.Point2D;
+import java.awt.geom.Rectangle2D;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 public abstract class CompositeGridRenderer {
+    /** Pass names reported by {@link RenderPassEvent}, by drawing operation */
+    private static final String[] PASS_NAMES = {"faces", "edges", "vertices"};
     /** Grid to render */
     private final CompositeGrid grid;
     /** Hexagon used for geometry */
@@ -26,6 +34,12 @@ public abstract class CompositeGridRenderer {
     private final double rowSpacing;
     /** Offset to be applied to the x-axis on every other row*/
     private final double oddRowOffset;
+    /** On-screen edge lengths below which vertices, internal edges and single tiles are no longer drawn, 0 if never */
+    private double vertexThreshold;
+    private double internalEdgeThreshold;
+    private double summaryThreshold;
+    /** Average tile colours for {@link DetailLevel#SUMMARY}, built on first use */
+    private TileColorMipmap tileColorMipmap;
 
     /**
      * Constructs a CompositeGridRenderer with a given grid and edge length.
@@ -45,39 +59,472 @@ public abstract class CompositeGridRenderer {
     }
 
     /**
-     * Draws the entire grid on the provided Graphics2D object.
+     * Draws the grid on the provided Graphics2D object.
+     * Only the rows and columns that can touch the current clip are visited; with no clip the entire grid is drawn.
+     * Once enabled with {@link #setDetailThresholds}, detail is reduced as the grid is zoomed out,
+     * see {@link #getDetailLevel(Graphics2D)}.
      *
      * @param g2d The Graphics2D object to render the grid onto.
      */
     public void drawGrid(Graphics2D g2d) {
+        DetailLevel detailLevel = getDetailLevel(g2d);
+        if (detailLevel == DetailLevel.SUMMARY) {
+            drawSummary(g2d, "drawGrid");
+            return;
+        }
+
         AffineTransform originalTransform = g2d.getTransform();
+        TriangleGrid triangleGrid = grid.getTriangleGrid();
+
+        Rectangle range = getVisibleRange(g2d);
+        if (range.isEmpty())
+            return;
+
+        int drawingOperations = detailLevel == DetailLevel.FULL ? 3 : 2;
+        boolean drawInternalEdges = detailLevel != DetailLevel.NO_INTERNAL_EDGES;
 
         // Iterate through grid drawing operations: Faces, Edges, Vertices
         // moving the Graphics2D object to the required vertex position
-        for (int drawingOperation = 0; drawingOperation < 3; drawingOperation++) {
-            for (int y = 0; y < grid.getTriangleGrid().getHeight(); y++) {
+        for (int drawingOperation = 0; drawingOperation < drawingOperations; drawingOperation++) {
+            RenderPassEvent event = new RenderPassEvent();
+            boolean recording = event.isEnabled();
+            long visited = 0;
+            long drawn = 0;
+            event.begin();
+            for (int y = range.y; y < range.y + range.height; y++) {
+                g2d.translate(range.x * columnSpacing, y * rowSpacing);
                 if (y % 2 == 1)
                     g2d.translate(-oddRowOffset, 0);
 
-                for (int x = 0; x < grid.getTriangleGrid().getWidth(); x++) {
-                    TriangleGridNode node = grid.getTriangleGrid().getNode(x, y);
+                for (int x = range.x; x < range.x + range.width; x++) {
+                    TriangleGridNode node = triangleGrid.getNode(x, y);
                     boolean isHexagonCentre = grid.isHexagonCentre(x, y);
 
                     if (node == null)
                         break;
 
-                    drawNode(g2d, node, drawingOperation, x, y, isHexagonCentre);
+                    visited++;
+                    if (recording)
+                        drawn += countDrawnElements(node, drawingOperation, x, y, isHexagonCentre, drawInternalEdges);
+                    if (drawingOperation == 1 && !drawInternalEdges)
+                        drawEdges(g2d, node.edges, x, y, isHexagonCentre, false);
+                    else
+                        drawNode(g2d, node, drawingOperation, x, y, isHexagonCentre);
                     g2d.translate(columnSpacing, 0);
                 }
 
                 //reset
                 g2d.setTransform(originalTransform);
-                g2d.translate(0, (y + 1) * rowSpacing);
             }
+            event.end();
+            if (event.shouldCommit())
+                commitRenderPass(event, "drawGrid", PASS_NAMES[drawingOperation], detailLevel, visited, drawn, getNodeCount());
+        }
+    }
+
+    /**
+     * Counts the elements of a node that a drawing operation hands to the draw hooks, for {@link RenderPassEvent}.
+     */
+    private int countDrawnElements(TriangleGridNode node, int drawingOperation, int x, int y, boolean isHexagonCentre, boolean drawInternalEdges) {
+        switch (drawingOperation) {
+            case 0:
+                return isHexagonCentre ? 1 : 0;
+            case 1:
+                int count = 0;
+                for (int edgeIndex = 0; edgeIndex < 3; edgeIndex++) {
+                    if (node.edges[edgeIndex] == null)
+                        continue;
+                    long end = TriangleGrid.getPackedVertexAtEndOfEdge(x, y, edgeIndex);
+                    if (drawInternalEdges || !(isHexagonCentre || grid.isHexagonCentre(PackedCoordinate.x(end), PackedCoordinate.y(end))))
+                        count++;
+                }
+                return count;
+            default:
+                return 1;
+        }
+    }
+
+    private long getNodeCount() {
+        return (long) grid.getTriangleGrid().getWidth() * grid.getTriangleGrid().getHeight();
+    }
+
+    private static void commitRenderPass(RenderPassEvent event, String method, String pass, DetailLevel detailLevel,
+                                         long visited, long drawn, long total) {
+        event.method = method;
+        event.pass = pass;
+        event.detailLevel = detailLevel.name();
+        event.visited = visited;
+        event.drawn = drawn;
+        event.culled = total - visited;
+        event.commit();
+    }
+
+    /**
+     * Draws the grid with one fill/draw call per style and pass instead of one call per element.
+     * <p>
+     * Elements are not drawn through the {@code draw*} hooks. Instead each element's {@link RenderStyle} is taken
+     * from the {@code get*Style} hooks, elements with equal styles are appended to one path in absolute
+     * coordinates, and each path is filled and/or stroked once. Elements whose style is {@code null} are skipped.
+     * Passes run in the same order as {@link #drawGrid}: faces, edges, vertices, and detail is reduced in the same way.
+     *
+     * @param g2d The Graphics2D object to render the grid onto.
+     */
+    public void drawGridBatched(Graphics2D g2d) {
+        DetailLevel detailLevel = getDetailLevel(g2d);
+        if (detailLevel == DetailLevel.SUMMARY) {
+            drawSummary(g2d, "drawGridBatched");
+            return;
+        }
+
+        Rectangle range = getVisibleRange(g2d);
+        if (range.isEmpty())
+            return;
+
+        TriangleGrid triangleGrid = grid.getTriangleGrid();
+        Map<RenderStyle, Path2D> groups = new LinkedHashMap<>();
+        Ellipse2D.Double disc = new Ellipse2D.Double();
+        long visited = (long) range.width * range.height;
+        long drawn = 0;
+
+        // Faces
+        RenderPassEvent event = new RenderPassEvent();
+        event.begin();
+        for (int y = range.y; y < range.y + range.height; y++) {
+            for (int x = range.x; x < range.x + range.width; x++) {
+                if (!grid.isHexagonCentre(x, y))
+                    continue;
+                long hexagonCoordinate = TriangleCoordinate.getPackedHexagonCoordinate(x, y);
+                RenderStyle style = getHexagonStyle(grid.getHexagonTile(PackedCoordinate.x(hexagonCoordinate), PackedCoordinate.y(hexagonCoordinate)));
+                if (style == null)
+                    continue;
+
+                Path2D path = groups.computeIfAbsent(style, key -> new Path2D.Double());
+                double nodeX = getNodeX(x, y);
+                double nodeY = getNodeY(y);
+                path.moveTo(nodeX + hexagon.getVertex(0).getX(), nodeY + hexagon.getVertex(0).getY());
+                for (int i = 1; i < 6; i++) {
+                    path.lineTo(nodeX + hexagon.getVertex(i).getX(), nodeY + hexagon.getVertex(i).getY());
+                }
+                path.closePath();
+                drawn++;
+            }
+        }
+        drawGroups(g2d, groups);
+        event.end();
+        if (event.shouldCommit())
+            commitRenderPass(event, "drawGridBatched", PASS_NAMES[0], detailLevel, visited, drawn, getNodeCount());
+
+        // Edges
+        event = new RenderPassEvent();
+        event.begin();
+        drawn = 0;
+        for (int y = range.y; y < range.y + range.height; y++) {
+            for (int x = range.x; x < range.x + range.width; x++) {
+                boolean isHexagonCentre = grid.isHexagonCentre(x, y);
+                double nodeX = getNodeX(x, y);
+                double nodeY = getNodeY(y);
+                for (int edgeIndex = 0; edgeIndex < 3; edgeIndex++) {
+                    if (!triangleGrid.edgeExists(x, y, edgeIndex))
+                        continue;
+
+                    long end = TriangleGrid.getPackedVertexAtEndOfEdge(x, y, edgeIndex);
+                    boolean internal = isHexagonCentre || grid.isHexagonCentre(PackedCoordinate.x(end), PackedCoordinate.y(end));
+                    if (internal && detailLevel == DetailLevel.NO_INTERNAL_EDGES)
+                        continue;
+                    Edge edge = triangleGrid.getEdge(x, y, edgeIndex);
+                    RenderStyle style = internal ? getInternalEdgeStyle(edge) : getExternalEdgeStyle(edge);
+                    if (style == null)
+                        continue;
+
+                    Path2D path = groups.computeIfAbsent(style, key -> new Path2D.Double());
+                    Point2D vertex = hexagon.getVertex(edgeIndex);
+                    path.moveTo(nodeX, nodeY);
+                    path.lineTo(nodeX + vertex.getX(), nodeY + vertex.getY());
+                    drawn++;
+                }
+            }
+        }
+        drawGroups(g2d, groups);
+        event.end();
+        if (event.shouldCommit())
+            commitRenderPass(event, "drawGridBatched", PASS_NAMES[1], detailLevel, visited, drawn, getNodeCount());
+        if (detailLevel != DetailLevel.FULL)
+            return;
+
+        // Vertices
+        event = new RenderPassEvent();
+        event.begin();
+        drawn = 0;
+        for (int y = range.y; y < range.y + range.height; y++) {
+            for (int x = range.x; x < range.x + range.width; x++) {
+                boolean isHexagonCentre = grid.isHexagonCentre(x, y);
+                Vertex vertex = triangleGrid.getVertex(x, y);
+                RenderStyle style = isHexagonCentre ? getHexagonCentreVertexStyle(vertex) : getExternalEdgeVertexStyle(vertex);
+                if (style == null)
+                    continue;
+
+                double radius = getVertexRadius(isHexagonCentre);
+                disc.setFrame(getNodeX(x, y) - radius, getNodeY(y) - radius, 2 * radius, 2 * radius);
+                groups.computeIfAbsent(style, key -> new Path2D.Double()).append(disc, false);
+                drawn++;
+            }
+        }
+        drawGroups(g2d, groups);
+        event.end();
+        if (event.shouldCommit())
+            commitRenderPass(event, "drawGridBatched", PASS_NAMES[2], detailLevel, visited, drawn, getNodeCount());
+    }
 
-            //reset
-            g2d.setTransform(originalTransform);
+    /**
+     * Fills and/or strokes each group once, then empties the groups for the next pass.
+     */
+    private void drawGroups(Graphics2D g2d, Map<RenderStyle, Path2D> groups) {
+        for (Map.Entry<RenderStyle, Path2D> group : groups.entrySet()) {
+            RenderStyle style = group.getKey();
+            if (style.getFill() != null) {
+                g2d.setColor(style.getFill());
+                g2d.fill(group.getValue());
+            }
+            if (style.getOutline() != null) {
+                g2d.setColor(style.getOutline());
+                g2d.setStroke(style.getStroke());
+                g2d.draw(group.getValue());
+            }
         }
+        groups.clear();
+    }
+
+    /**
+     * Chooses how much to draw from the length of an edge on screen, i.e. the edge length scaled by the
+     * transform of the Graphics2D object.
+     *
+     * @param g2d The Graphics2D object being drawn onto.
+     * @return The detail level.
+     */
+    public DetailLevel getDetailLevel(Graphics2D g2d) {
+        return getDetailLevel(hexagon.edgeLength * getScale(g2d.getTransform()));
+    }
+
+    /**
+     * Chooses how much to draw for an on-screen edge length.
+     *
+     * @param effectiveEdgeLength The length of an edge in device pixels.
+     * @return The detail level.
+     */
+    public DetailLevel getDetailLevel(double effectiveEdgeLength) {
+        if (effectiveEdgeLength < summaryThreshold)
+            return DetailLevel.SUMMARY;
+        if (effectiveEdgeLength < internalEdgeThreshold)
+            return DetailLevel.NO_INTERNAL_EDGES;
+        if (effectiveEdgeLength < vertexThreshold)
+            return DetailLevel.NO_VERTICES;
+        return DetailLevel.FULL;
+    }
+
+    /**
+     * Sets the on-screen edge lengths, in device pixels, below which detail is dropped.
+     * A threshold of 0 never drops that detail; all thresholds are 0 until set, so the full grid is drawn.
+     * Tiles drawn as blocks take their colours from {@link #getTileSummaryColor}, which must be overridden
+     * before a summary threshold is set.
+     *
+     * @param vertexThreshold       Edge length below which vertices are not drawn.
+     * @param internalEdgeThreshold Edge length below which edges inside hexagons are not drawn.
+     * @param summaryThreshold      Edge length below which blocks of tiles are drawn instead of hexagons.
+     */
+    public void setDetailThresholds(double vertexThreshold, double internalEdgeThreshold, double summaryThreshold) {
+        if (summaryThreshold < 0 || internalEdgeThreshold < summaryThreshold || vertexThreshold < internalEdgeThreshold)
+            throw new IllegalArgumentException("Thresholds must satisfy vertex >= internal edge >= summary >= 0");
+        this.vertexThreshold = vertexThreshold;
+        this.internalEdgeThreshold = internalEdgeThreshold;
+        this.summaryThreshold = summaryThreshold;
+    }
+
+    private static double getScale(AffineTransform transform) {
+        return Math.sqrt(Math.abs(transform.getDeterminant()));
+    }
+
+    /**
+     * Draws blocks of tiles as rectangles of their average colour, choosing the mipmap level at which a block
+     * covers at least one device pixel. The number of rectangles depends on the clip size in pixels, not on the
+     * grid size.
+     */
+    private void drawSummary(Graphics2D g2d, String method) {
+        RenderPassEvent event = new RenderPassEvent();
+        event.begin();
+        TileColorMipmap mipmap = getTileColorMipmap();
+        double tileColumnWidth = 1.5 * columnSpacing;
+        double tileRowHeight = 2 * rowSpacing;
+        double tilePixels = tileColumnWidth * getScale(g2d.getTransform());
+        int level = 0;
+        while (level < mipmap.getLevelCount() - 1 && tilePixels * (1 << level) < 1)
+            level++;
+
+        // Tile (a, b) is centred on (columnSpacing * (1.5a + 0.5), rowSpacing * (2b + 1)), odd columns half a tile lower
+        double blockWidth = tileColumnWidth * (1 << level);
+        double blockHeight = tileRowHeight * (1 << level);
+        double originX = -0.25 * columnSpacing;
+        double originY = 0.5 * rowSpacing;
+        Rectangle2D area = g2d.getClipBounds();
+        if (area == null)
+            area = getGridBounds();
+        int minX = Math.max(0, (int) Math.floor((area.getMinX() - originX) / blockWidth));
+        int maxX = Math.min(mipmap.getWidth(level) - 1, (int) Math.floor((area.getMaxX() - originX) / blockWidth));
+        int minY = Math.max(0, (int) Math.floor((area.getMinY() - originY) / blockHeight));
+        int maxY = Math.min(mipmap.getHeight(level) - 1, (int) Math.floor((area.getMaxY() - originY) / blockHeight));
+
+        Rectangle2D.Double block = new Rectangle2D.Double();
+        int currentColor = 0;
+        long drawn = 0;
+        for (int y = minY; y <= maxY; y++) {
+            for (int x = minX; x <= maxX; x++) {
+                int color = mipmap.getColor(level, x, y);
+                if (color >>> 24 == 0)
+                    continue;
+                if (color != currentColor) {
+                    g2d.setColor(new Color(color, true));
+                    currentColor = color;
+                }
+                block.setRect(originX + x * blockWidth, originY + y * blockHeight, blockWidth, blockHeight);
+                g2d.fill(block);
+                drawn++;
+            }
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            long visited = (long) Math.max(0, maxX - minX + 1) * Math.max(0, maxY - minY + 1);
+            long total = (long) mipmap.getWidth(level) * mipmap.getHeight(level);
+            commitRenderPass(event, method, "summary", DetailLevel.SUMMARY, visited, drawn, total);
+        }
+    }
+
+    /**
+     * Returns the average tile colours used at {@link DetailLevel#SUMMARY}, building them on first use
+     * from {@link #getTileSummaryColor}.
+     *
+     * @return The mipmap.
+     */
+    public synchronized TileColorMipmap getTileColorMipmap() {
+        if (tileColorMipmap == null) {
+            tileColorMipmap = new TileColorMipmap(grid.getWidth(), grid.getHeight(), this::getTileSummaryColor);
+        }
+        return tileColorMipmap;
+    }
+
+    /**
+     * Recomputes the summary colour of a tile after its appearance changed.
+     *
+     * @param x The tile x-coordinate.
+     * @param y The tile y-coordinate.
+     */
+    public synchronized void updateTileSummaryColor(int x, int y) {
+        if (tileColorMipmap != null)
+            tileColorMipmap.update(x, y, getTileSummaryColor(x, y));
+    }
+
+    /**
+     * Discards the summary colours, e.g. after the appearance of many tiles changed. They are rebuilt on next use.
+     */
+    public synchronized void invalidateTileSummaryColors() {
+        tileColorMipmap = null;
+    }
+
+    /**
+     * Colour of a tile at {@link DetailLevel#SUMMARY}. Takes the coordinate rather than the tile, so that
+     * building the summary does not create tiles that were never accessed. Defaults to transparent.
+     *
+     * @param x The tile x-coordinate.
+     * @param y The tile y-coordinate.
+     * @return The ARGB colour.
+     */
+    protected int getTileSummaryColor(int x, int y) {
+        return 0;
+    }
+
+    /**
+     * Computes the range of triangle coordinates that can touch the clip of a Graphics2D object.
+     * The clip bounds are in user space, so they already account for the current transform.
+     *
+     * @param g2d The Graphics2D object being drawn onto.
+     * @return The range of triangle coordinates, or the whole grid if there is no clip.
+     */
+    private Rectangle getVisibleRange(Graphics2D g2d) {
+        Rectangle clip = g2d.getClipBounds();
+        if (clip == null)
+            return new Rectangle(0, 0, grid.getTriangleGrid().getWidth(), grid.getTriangleGrid().getHeight());
+        return getTriangleCoordinateRange(clip);
+    }
+
+    /**
+     * Computes the range of triangle coordinates whose drawing can touch an area of user space.
+     * The area is grown by {@link #getCullingMargin()} so that edges and vertices of nodes just outside it are kept.
+     *
+     * @param area The area in the user space of {@link #drawGrid}.
+     * @return The range of triangle coordinates, clamped to the grid (x/y is the first column/row).
+     */
+    public Rectangle getTriangleCoordinateRange(Rectangle2D area) {
+        TriangleGrid triangleGrid = grid.getTriangleGrid();
+        double margin = getCullingMargin();
+        int minY = Math.max(0, (int) Math.floor((area.getMinY() - margin) / rowSpacing));
+        int maxY = Math.min(triangleGrid.getHeight() - 1, (int) Math.ceil((area.getMaxY() + margin) / rowSpacing));
+        int minX = Math.max(0, (int) Math.floor((area.getMinX() - margin) / columnSpacing));
+        int maxX = Math.min(triangleGrid.getWidth() - 1, (int) Math.ceil((area.getMaxX() + margin + oddRowOffset) / columnSpacing));
+        return new Rectangle(minX, minY, Math.max(0, maxX - minX + 1), Math.max(0, maxY - minY + 1));
+    }
+
+    /**
+     * Gets the x position, in the user space of {@link #drawGrid}, of a triangle node.
+     *
+     * @param x The triangle x-coordinate.
+     * @param y The triangle y-coordinate.
+     * @return The x position of the node.
+     */
+    public double getNodeX(int x, int y) {
+        return x * columnSpacing - ((y & 1) == 1 ? oddRowOffset : 0);
+    }
+
+    /**
+     * Gets the y position, in the user space of {@link #drawGrid}, of a triangle node.
+     *
+     * @param y The triangle y-coordinate.
+     * @return The y position of the node.
+     */
+    public double getNodeY(int y) {
+        return y * rowSpacing;
+    }
+
+    /**
+     * Gets the area of user space that drawing the whole grid can touch.
+     *
+     * @return The bounds of the grid, grown by the culling margin.
+     */
+    public Rectangle2D getGridBounds() {
+        TriangleGrid triangleGrid = grid.getTriangleGrid();
+        double margin = getCullingMargin();
+        double minX = -oddRowOffset - margin;
+        double minY = -margin;
+        double maxX = (triangleGrid.getWidth() - 1) * columnSpacing + margin;
+        double maxY = (triangleGrid.getHeight() - 1) * rowSpacing + margin;
+        return new Rectangle2D.Double(minX, minY, maxX - minX, maxY - minY);
+    }
+
+    /**
+     * Returns the grid being rendered.
+     *
+     * @return The CompositeGrid instance.
+     */
+    public CompositeGrid getGrid() {
+        return grid;
+    }
+
+    /**
+     * Distance, in user space, by which the clip is grown before culling.
+     * It must cover the longest edge drawn from a node plus the widest stroke or vertex disc.
+     * Subclasses drawing larger decorations should override it.
+     *
+     * @return The culling margin.
+     */
+    protected double getCullingMargin() {
+        return 2 * hexagon.edgeLength;
     }
 
     /**
@@ -118,6 +565,14 @@ public abstract class CompositeGridRenderer {
     }
 
     protected void drawEdges(Graphics2D g2d, Edge[] edges, int x, int y, boolean isHexagonCentre) {
+        drawEdges(g2d, edges, x, y, isHexagonCentre, true);
+    }
+
+    private void drawEdges(Graphics2D g2d, Edge[] edges, int x, int y, boolean isHexagonCentre, boolean drawInternalEdges) {
+        //every edge of a hexagon centre is internal
+        if (isHexagonCentre && !drawInternalEdges)
+            return;
+
         //cycle through the 3 edges held by the triangle node
         //each edge's origin is the triangle node to the vertex index of a hexagon
         for (int edgeIndex = 0; edgeIndex < 3; edgeIndex++) {
@@ -131,9 +586,10 @@ public abstract class CompositeGridRenderer {
                 boolean isEdgeVertexHexagonCentre = grid.isHexagonCentre(vertexCoordinate.x, vertexCoordinate.y);
 
                 //is either the triangle node or the edge vertex the hexagon centre?
-                if (isHexagonCentre || isEdgeVertexHexagonCentre)
-                    drawInternalEdge(g2d, edges[edgeIndex], vertex.getX(), vertex.getY());
-                else
+                if (isHexagonCentre || isEdgeVertexHexagonCentre) {
+                    if (drawInternalEdges)
+                        drawInternalEdge(g2d, edges[edgeIndex], vertex.getX(), vertex.getY());
+                } else
                     drawExternalEdge(g2d, edges[edgeIndex], vertex.getX(), vertex.getY());
             }
         }
@@ -141,6 +597,66 @@ public abstract class CompositeGridRenderer {
 
     protected abstract void drawHexagon(Graphics2D g2d, Tile tile);
 
+    /**
+     * Style of a hexagon in {@link #drawGridBatched}. Filled with the hexagon shape.
+     *
+     * @param tile The tile, or {@code null} for a hexagon centre outside the tile grid.
+     * @return The style, or {@code null} to skip the hexagon.
+     */
+    protected RenderStyle getHexagonStyle(Tile tile) {
+        return null;
+    }
+
+    /**
+     * Style of an edge inside a hexagon in {@link #drawGridBatched}. Stroked as a line.
+     *
+     * @param edge The edge.
+     * @return The style, or {@code null} to skip the edge.
+     */
+    protected RenderStyle getInternalEdgeStyle(Edge edge) {
+        return null;
+    }
+
+    /**
+     * Style of an edge on a hexagon border in {@link #drawGridBatched}. Stroked as a line.
+     *
+     * @param edge The edge.
+     * @return The style, or {@code null} to skip the edge.
+     */
+    protected RenderStyle getExternalEdgeStyle(Edge edge) {
+        return null;
+    }
+
+    /**
+     * Style of a hexagon centre vertex in {@link #drawGridBatched}. Filled and/or stroked as a disc.
+     *
+     * @param vertex The vertex.
+     * @return The style, or {@code null} to skip the vertex.
+     */
+    protected RenderStyle getHexagonCentreVertexStyle(Vertex vertex) {
+        return null;
+    }
+
+    /**
+     * Style of a hexagon border vertex in {@link #drawGridBatched}. Filled and/or stroked as a disc.
+     *
+     * @param vertex The vertex.
+     * @return The style, or {@code null} to skip the vertex.
+     */
+    protected RenderStyle getExternalEdgeVertexStyle(Vertex vertex) {
+        return null;
+    }
+
+    /**
+     * Radius of the vertex discs drawn by {@link #drawGridBatched}.
+     *
+     * @param isHexagonCentre Whether the vertex is a hexagon centre.
+     * @return The disc radius in user space.
+     */
+    protected double getVertexRadius(boolean isHexagonCentre) {
+        return hexagon.edgeLength / 10;
+    }
+
     protected abstract void drawInternalEdge(Graphics2D g2d, Edge edge, double x, double y);
 
     protected abstract void drawExternalEdge(Graphics2D g2d, Edge edge, double x, double y);
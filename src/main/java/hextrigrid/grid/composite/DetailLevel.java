@@ -0,0 +1,15 @@
+package hextrigrid.grid.composite;
+
+/**
+ * How much of the grid {@link CompositeGridRenderer} draws, chosen from the on-screen edge length.
+ */
+public enum DetailLevel {
+    /** Hexagons, all edges and all vertices */
+    FULL,
+    /** Hexagons and all edges */
+    NO_VERTICES,
+    /** Hexagons and the edges on hexagon borders */
+    NO_INTERNAL_EDGES,
+    /** Blocks of tiles as rectangles of their average colour, see {@link TileColorMipmap} */
+    SUMMARY
+}
@@ -0,0 +1,94 @@
+package hextrigrid.grid.composite;
+
+import hextrigrid.grid.Tile;
+import hextrigrid.grid.triangle.TriangleGridNode;
+
+/**
+ * A fixed-size block of a {@link ChunkedCompositeGrid}.
+ * A chunk owns a block of hexagonal tiles and, independently, a block of triangle nodes
+ * (with their vertices, edges and faces). Both blocks are addressed by global coordinates.
+ */
+public class GridChunk {
+    private final int chunkX;
+    private final int chunkY;
+    /** Hexagon block origin and size */
+    private final int tileOriginX;
+    private final int tileOriginY;
+    private final int tileWidth;
+    private final int tileHeight;
+    /** Triangle block origin and size */
+    private final int nodeOriginX;
+    private final int nodeOriginY;
+    private final int nodeWidth;
+    private final int nodeHeight;
+    private final Tile[] tiles;
+    private final TriangleGridNode[] nodes;
+
+    /**
+     * Creates a chunk and all of its tiles and triangle nodes.
+     *
+     * @param chunkX     The chunk column.
+     * @param chunkY     The chunk row.
+     * @param tileWidth  The number of hexagonal columns in the chunk.
+     * @param tileHeight The number of hexagonal rows in the chunk.
+     */
+    public GridChunk(int chunkX, int chunkY, int tileWidth, int tileHeight) {
+        this.chunkX = chunkX;
+        this.chunkY = chunkY;
+        this.tileWidth = tileWidth;
+        this.tileHeight = tileHeight;
+        this.tileOriginX = chunkX * tileWidth;
+        this.tileOriginY = chunkY * tileHeight;
+        this.nodeWidth = ChunkedCompositeGrid.nodeColumnsPerChunk(tileWidth);
+        this.nodeHeight = ChunkedCompositeGrid.nodeRowsPerChunk(tileHeight);
+        this.nodeOriginX = chunkX * nodeWidth;
+        this.nodeOriginY = chunkY * nodeHeight;
+        this.tiles = new Tile[tileWidth * tileHeight];
+        this.nodes = new TriangleGridNode[nodeWidth * nodeHeight];
+        createChunk();
+    }
+
+    /**
+     * Creates the tiles and triangle nodes of the chunk. An unbounded grid has no border, so nothing is trimmed.
+     */
+    private void createChunk() {
+        for (int i = 0; i < tiles.length; i++) {
+            tiles[i] = new Tile();
+        }
+        for (int y = 0; y < nodeHeight; y++) {
+            for (int x = 0; x < nodeWidth; x++) {
+                nodes[y * nodeWidth + x] = new TriangleGridNode();
+            }
+        }
+    }
+
+    /**
+     * Retrieves a tile of this chunk.
+     *
+     * @param x The global hexagon x-coordinate, inside this chunk.
+     * @param y The global hexagon y-coordinate, inside this chunk.
+     * @return The tile.
+     */
+    public Tile getTile(int x, int y) {
+        return tiles[(y - tileOriginY) * tileWidth + (x - tileOriginX)];
+    }
+
+    /**
+     * Retrieves a triangle node of this chunk.
+     *
+     * @param x The global triangle x-coordinate, inside this chunk.
+     * @param y The global triangle y-coordinate, inside this chunk.
+     * @return The node.
+     */
+    public TriangleGridNode getNode(int x, int y) {
+        return nodes[(y - nodeOriginY) * nodeWidth + (x - nodeOriginX)];
+    }
+
+    public int getChunkX() {
+        return chunkX;
+    }
+
+    public int getChunkY() {
+        return chunkY;
+    }
+}
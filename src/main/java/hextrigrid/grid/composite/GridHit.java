@@ -0,0 +1,24 @@
+package hextrigrid.grid.composite;
+
+/**
+ * Result of a {@link GridHitTester} query. Instances are mutable so that one can be reused for every query.
+ * Coordinates are filled in even when they lie outside the grid; check {@link #insideGrid} before using them.
+ */
+public class GridHit {
+    /** Whether the containing face exists in the grid */
+    public boolean insideGrid;
+    /** Hexagon tile containing the point */
+    public int tileX;
+    public int tileY;
+    /** Nearest triangle vertex */
+    public int vertexX;
+    public int vertexY;
+    /** Nearest edge, as the node holding it and the edge index (0-2) */
+    public int edgeX;
+    public int edgeY;
+    public int edgeIndex;
+    /** Triangle face containing the point, as the node holding it and its orientation */
+    public int faceX;
+    public int faceY;
+    public boolean facePointing;
+}
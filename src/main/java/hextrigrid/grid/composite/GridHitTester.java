@@ -0,0 +1,268 @@
+package hextrigrid.grid.composite;
+
+import hextrigrid.grid.CoordinateConsumer;
+import hextrigrid.grid.PackedCoordinate;
+import hextrigrid.grid.triangle.TriangleCoordinate;
+import hextrigrid.grid.triangle.TriangleFace;
+import hextrigrid.grid.triangle.TriangleGrid;
+
+import java.awt.geom.AffineTransform;
+import java.awt.geom.NoninvertibleTransformException;
+import java.awt.geom.Rectangle2D;
+
+/**
+ * Maps points of a rendered grid back to grid coordinates in constant time, using the geometry of a
+ * {@link CompositeGridRenderer}.
+ * <p>
+ * A query finds the nearest triangle vertex among three candidate rows, then the triangle face around it that
+ * contains the point from the angle of the point around the vertex. The nearest edge is a side of that face, and the
+ * containing tile is the one whose centre is a corner of that face. Range queries enumerate exactly the tile
+ * centres or vertices inside a rectangle or circle.
+ * <p>
+ * A GridHitTester is not thread-safe; use one per thread.
+ */
+public class GridHitTester {
+    private final CompositeGrid grid;
+    private final TriangleGrid triangleGrid;
+    private final double columnSpacing;
+    private final double rowSpacing;
+    private final double oddRowOffset;
+    private final double[] point = new double[2];
+
+    public GridHitTester(CompositeGridRenderer renderer) {
+        this.grid = renderer.getGrid();
+        this.triangleGrid = grid.getTriangleGrid();
+        this.columnSpacing = renderer.hexagon.edgeLength;
+        this.rowSpacing = renderer.hexagon.halfHeight;
+        this.oddRowOffset = renderer.hexagon.halfEdgeLength;
+    }
+
+    /**
+     * Hit-tests a point on screen.
+     *
+     * @param screenX   The x position on screen.
+     * @param screenY   The y position on screen.
+     * @param transform The transform the grid was drawn with (user space of drawGrid to screen).
+     * @param out       Receives the result.
+     * @return {@code true} if the point is inside the grid.
+     * @throws NoninvertibleTransformException If the transform cannot be inverted.
+     */
+    public boolean hitTest(double screenX, double screenY, AffineTransform transform, GridHit out) throws NoninvertibleTransformException {
+        point[0] = screenX;
+        point[1] = screenY;
+        transform.inverseTransform(point, 0, point, 0, 1);
+        return hitTest(point[0], point[1], out);
+    }
+
+    /**
+     * Hit-tests a point in the user space of {@link CompositeGridRenderer#drawGrid}.
+     *
+     * @param px  The x position.
+     * @param py  The y position.
+     * @param out Receives the result.
+     * @return {@code true} if the point is inside the grid.
+     */
+    public boolean hitTest(double px, double py, GridHit out) {
+        // Nearest vertex: it is in the nearest row or one of the rows either side of it
+        int nearestRow = (int) Math.round(py / rowSpacing);
+        double best = Double.MAX_VALUE;
+        int vertexX = 0;
+        int vertexY = 0;
+        for (int y = nearestRow - 1; y <= nearestRow + 1; y++) {
+            int x = (int) Math.round((px + shift(y)) / columnSpacing);
+            double dx = px - nodeX(x, y);
+            double dy = py - y * rowSpacing;
+            double distance = dx * dx + dy * dy;
+            if (distance < best) {
+                best = distance;
+                vertexX = x;
+                vertexY = y;
+            }
+        }
+        out.vertexX = vertexX;
+        out.vertexY = vertexY;
+
+        // The containing face is the one of the six around the nearest vertex whose sector holds the point.
+        // Hexagon vertex k lies at -120 + 60k degrees (y pointing down), so sector k spans directions k and k + 1.
+        double angle = Math.toDegrees(Math.atan2(py - vertexY * rowSpacing, px - nodeX(vertexX, vertexY)));
+        int sector = Math.floorMod((int) Math.floor((angle + 120) / 60), 6);
+        long cornerA = TriangleGrid.getPackedVertexAtEndOfEdge(vertexX, vertexY, sector);
+        long cornerB = TriangleGrid.getPackedVertexAtEndOfEdge(vertexX, vertexY, (sector + 1) % 6);
+        setFace(out, vertexX, vertexY, sector);
+
+        // Nearest edge: a side of the containing face
+        int ax = PackedCoordinate.x(cornerA);
+        int ay = PackedCoordinate.y(cornerA);
+        int bx = PackedCoordinate.x(cornerB);
+        int by = PackedCoordinate.y(cornerB);
+        double toA = segmentDistanceSquared(px, py, vertexX, vertexY, ax, ay);
+        double toB = segmentDistanceSquared(px, py, vertexX, vertexY, bx, by);
+        double across = segmentDistanceSquared(px, py, ax, ay, bx, by);
+        if (toA <= toB && toA <= across)
+            setEdge(out, vertexX, vertexY, sector);
+        else if (toB <= across)
+            setEdge(out, vertexX, vertexY, (sector + 1) % 6);
+        else
+            setEdge(out, ax, ay, (sector + 2) % 6);
+
+        // Tile: every face has exactly one corner at a hexagon centre
+        int centreX = vertexX;
+        int centreY = vertexY;
+        if (TriangleCoordinate.isHexagonCentre(ax, ay)) {
+            centreX = ax;
+            centreY = ay;
+        } else if (TriangleCoordinate.isHexagonCentre(bx, by)) {
+            centreX = bx;
+            centreY = by;
+        }
+        long tile = TriangleCoordinate.getPackedHexagonCoordinate(centreX, centreY);
+        out.tileX = PackedCoordinate.x(tile);
+        out.tileY = PackedCoordinate.y(tile);
+
+        out.insideGrid = triangleGrid.vertexExists(out.faceX, out.faceY) && triangleGrid.faceExists(out.faceX, out.faceY, out.facePointing);
+        return out.insideGrid;
+    }
+
+    /**
+     * Records the face spanning directions {@code sector} and {@code sector + 1} around a vertex,
+     * as the node that holds it.
+     */
+    private void setFace(GridHit out, int x, int y, int sector) {
+        // Faces pointing up are (node, direction 0, direction 1); faces pointing down are (node, direction 3, direction 4)
+        int holderDirection;
+        boolean pointing;
+        switch (sector) {
+            case 0: holderDirection = -1; pointing = TriangleFace.POINTY_UP; break;
+            case 1: holderDirection = 1; pointing = TriangleFace.POINTY_DOWN; break;
+            case 2: holderDirection = 3; pointing = TriangleFace.POINTY_UP; break;
+            case 3: holderDirection = -1; pointing = TriangleFace.POINTY_DOWN; break;
+            case 4: holderDirection = 4; pointing = TriangleFace.POINTY_UP; break;
+            default: holderDirection = 0; pointing = TriangleFace.POINTY_DOWN; break;
+        }
+        if (holderDirection >= 0) {
+            long holder = TriangleGrid.getPackedVertexAtEndOfEdge(x, y, holderDirection);
+            x = PackedCoordinate.x(holder);
+            y = PackedCoordinate.y(holder);
+        }
+        out.faceX = x;
+        out.faceY = y;
+        out.facePointing = pointing;
+    }
+
+    /**
+     * Records the edge leaving a vertex in a direction, as the node holding it.
+     */
+    private void setEdge(GridHit out, int x, int y, int direction) {
+        if (direction >= 3) {
+            long end = TriangleGrid.getPackedVertexAtEndOfEdge(x, y, direction);
+            x = PackedCoordinate.x(end);
+            y = PackedCoordinate.y(end);
+            direction -= 3;
+        }
+        out.edgeX = x;
+        out.edgeY = y;
+        out.edgeIndex = direction;
+    }
+
+    /**
+     * Enumerates the tiles of the grid whose centre lies inside a rectangle of user space.
+     *
+     * @param area     The rectangle.
+     * @param consumer Receives the tile coordinates.
+     */
+    public void forEachTileIn(Rectangle2D area, CoordinateConsumer consumer) {
+        // Tile (a, b) is centred at (columnSpacing * (1.5a + 0.5), rowSpacing * (2b + 1 + (a & 1)))
+        int minColumn = Math.max(0, (int) Math.ceil((area.getMinX() / columnSpacing - 0.5) / 1.5));
+        int maxColumn = Math.min(grid.getWidth() - 1, (int) Math.floor((area.getMaxX() / columnSpacing - 0.5) / 1.5));
+        for (int a = minColumn; a <= maxColumn; a++) {
+            forEachTileInColumn(a, area.getMinY(), area.getMaxY(), consumer);
+        }
+    }
+
+    /**
+     * Enumerates the tiles of the grid whose centre lies within a distance of a point of user space.
+     *
+     * @param centreX  The x position of the centre of the circle.
+     * @param centreY  The y position of the centre of the circle.
+     * @param radius   The radius.
+     * @param consumer Receives the tile coordinates.
+     */
+    public void forEachTileWithin(double centreX, double centreY, double radius, CoordinateConsumer consumer) {
+        int minColumn = Math.max(0, (int) Math.ceil(((centreX - radius) / columnSpacing - 0.5) / 1.5));
+        int maxColumn = Math.min(grid.getWidth() - 1, (int) Math.floor(((centreX + radius) / columnSpacing - 0.5) / 1.5));
+        for (int a = minColumn; a <= maxColumn; a++) {
+            double dx = columnSpacing * (1.5 * a + 0.5) - centreX;
+            double halfChord = Math.sqrt(Math.max(0, radius * radius - dx * dx));
+            forEachTileInColumn(a, centreY - halfChord, centreY + halfChord, consumer);
+        }
+    }
+
+    private void forEachTileInColumn(int a, double minY, double maxY, CoordinateConsumer consumer) {
+        int offset = 1 + (a & 1);
+        int minRow = Math.max(0, (int) Math.ceil((minY / rowSpacing - offset) / 2));
+        int maxRow = Math.min(grid.getHeight() - 1, (int) Math.floor((maxY / rowSpacing - offset) / 2));
+        for (int b = minRow; b <= maxRow; b++) {
+            consumer.accept(a, b);
+        }
+    }
+
+    /**
+     * Enumerates the vertices of the grid inside a rectangle of user space.
+     *
+     * @param area     The rectangle.
+     * @param consumer Receives the vertex coordinates.
+     */
+    public void forEachVertexIn(Rectangle2D area, CoordinateConsumer consumer) {
+        int minRow = Math.max(0, (int) Math.ceil(area.getMinY() / rowSpacing));
+        int maxRow = Math.min(triangleGrid.getHeight() - 1, (int) Math.floor(area.getMaxY() / rowSpacing));
+        for (int y = minRow; y <= maxRow; y++) {
+            forEachVertexInRow(y, area.getMinX(), area.getMaxX(), consumer);
+        }
+    }
+
+    /**
+     * Enumerates the vertices of the grid within a distance of a point of user space.
+     *
+     * @param centreX  The x position of the centre of the circle.
+     * @param centreY  The y position of the centre of the circle.
+     * @param radius   The radius.
+     * @param consumer Receives the vertex coordinates.
+     */
+    public void forEachVertexWithin(double centreX, double centreY, double radius, CoordinateConsumer consumer) {
+        int minRow = Math.max(0, (int) Math.ceil((centreY - radius) / rowSpacing));
+        int maxRow = Math.min(triangleGrid.getHeight() - 1, (int) Math.floor((centreY + radius) / rowSpacing));
+        for (int y = minRow; y <= maxRow; y++) {
+            double dy = y * rowSpacing - centreY;
+            double halfChord = Math.sqrt(Math.max(0, radius * radius - dy * dy));
+            forEachVertexInRow(y, centreX - halfChord, centreX + halfChord, consumer);
+        }
+    }
+
+    private void forEachVertexInRow(int y, double minX, double maxX, CoordinateConsumer consumer) {
+        int minColumn = Math.max(0, (int) Math.ceil((minX + shift(y)) / columnSpacing));
+        int maxColumn = Math.min(triangleGrid.getWidth() - 1, (int) Math.floor((maxX + shift(y)) / columnSpacing));
+        for (int x = minColumn; x <= maxColumn; x++) {
+            consumer.accept(x, y);
+        }
+    }
+
+    private double shift(int y) {
+        return (y & 1) == 1 ? oddRowOffset : 0;
+    }
+
+    private double nodeX(int x, int y) {
+        return x * columnSpacing - shift(y);
+    }
+
+    private double segmentDistanceSquared(double px, double py, int ax, int ay, int bx, int by) {
+        double x1 = nodeX(ax, ay);
+        double y1 = ay * rowSpacing;
+        double dx = nodeX(bx, by) - x1;
+        double dy = by * rowSpacing - y1;
+        double t = ((px - x1) * dx + (py - y1) * dy) / (dx * dx + dy * dy);
+        t = Math.max(0, Math.min(1, t));
+        double ex = x1 + t * dx - px;
+        double ey = y1 + t * dy - py;
+        return ex * ex + ey * ey;
+    }
+}
@@ -0,0 +1,270 @@
+package hextrigrid.grid.composite;
+
+import hextrigrid.grid.PackedCoordinate;
+import hextrigrid.grid.triangle.TriangleCoordinate;
+import hextrigrid.grid.triangle.TriangleFace;
+import hextrigrid.grid.triangle.TriangleGrid;
+
+import java.util.Arrays;
+
+/**
+ * Precomputed incidence between the tiles, vertices, edges and faces of a {@link CompositeGrid}, built once and
+ * stored as {@link IncidenceTable}s, so that each lookup is an array slice.
+ * <p>
+ * Elements are identified by their dense indices ({@link CompositeGrid#getTileIndex},
+ * {@link TriangleGrid#getVertexIndex}, {@link TriangleGrid#getEdgeIndex} and {@link TriangleGrid#getFaceIndex}).
+ * Targets are listed in a fixed order:
+ * <ul>
+ * <li>tile to vertices: the centre, then the six corners in hexagon direction order (0 = upper-left, clockwise);</li>
+ * <li>tile to edges: the six border edges, border {@code d} joining corners {@code d} and {@code d + 1};</li>
+ * <li>tile to faces: the six inner faces, face {@code d} lying between corners {@code d} and {@code d + 1};</li>
+ * <li>edge to tiles: as {@link CompositeGrid#getAdjacentTilesOfEdge(int, int, int, long[])}, tiles outside the grid left out;</li>
+ * <li>vertex to edges: the existing edges in hexagon direction order;</li>
+ * <li>vertex to tiles: the tiles whose hexagon contains the vertex, in tile index order.</li>
+ * </ul>
+ */
+public class GridIncidence {
+    private final CompositeGrid grid;
+    private final IncidenceTable tileVertices;
+    private final IncidenceTable tileEdges;
+    private final IncidenceTable tileFaces;
+    private final IncidenceTable edgeTiles;
+    private final IncidenceTable vertexEdges;
+    private final IncidenceTable vertexTiles;
+
+    public GridIncidence(CompositeGrid grid) {
+        this.grid = grid;
+        TriangleGrid triangleGrid = grid.getTriangleGrid();
+        int tileCount = grid.getTileCount();
+
+        IncidenceTable.Builder vertices = new IncidenceTable.Builder(tileCount, tileCount * 7);
+        IncidenceTable.Builder edges = new IncidenceTable.Builder(tileCount, tileCount * 6);
+        IncidenceTable.Builder faces = new IncidenceTable.Builder(tileCount, tileCount * 6);
+        for (int y = 0; y < grid.getHeight(); y++) {
+            for (int x = 0; x < grid.getWidth(); x++) {
+                addTile(triangleGrid, x, y, vertices, edges, faces);
+            }
+        }
+        tileVertices = vertices.build();
+        tileEdges = edges.build();
+        tileFaces = faces.build();
+
+        edgeTiles = buildEdgeTiles(triangleGrid);
+        vertexEdges = buildVertexEdges(triangleGrid);
+        vertexTiles = invert(tileVertices, triangleGrid.getVertexCount());
+    }
+
+    private static void addTile(TriangleGrid triangleGrid, int x, int y, IncidenceTable.Builder vertices,
+                                IncidenceTable.Builder edges, IncidenceTable.Builder faces) {
+        long centre = TriangleCoordinate.getPackedHexagonCentre(x, y);
+        int cx = PackedCoordinate.x(centre);
+        int cy = PackedCoordinate.y(centre);
+        if (triangleGrid.vertexExists(cx, cy))
+            vertices.add(triangleGrid.getVertexIndex(cx, cy));
+        for (int d = 0; d < 6; d++) {
+            long corner = TriangleGrid.getPackedVertexAtEndOfEdge(cx, cy, d);
+            int vx = PackedCoordinate.x(corner);
+            int vy = PackedCoordinate.y(corner);
+            if (!triangleGrid.vertexExists(vx, vy))
+                continue;
+            vertices.add(triangleGrid.getVertexIndex(vx, vy));
+            // The border between corners d and d + 1 leaves corner d in direction d + 2
+            if (edgeExistsInDirection(triangleGrid, vx, vy, (d + 2) % 6))
+                edges.add(triangleGrid.getEdgeIndexInDirection(vx, vy, (d + 2) % 6));
+        }
+        for (int d = 0; d < 6; d++) {
+            long face = getInnerFace(cx, cy, d);
+            int fx = PackedCoordinate.x(face);
+            int fy = PackedCoordinate.y(face);
+            boolean pointing = (d & 1) == 0 ? TriangleFace.POINTY_UP : TriangleFace.POINTY_DOWN;
+            if (triangleGrid.vertexExists(fx, fy) && triangleGrid.faceExists(fx, fy, pointing))
+                faces.add(triangleGrid.getFaceIndex(fx, fy, pointing));
+        }
+        vertices.next();
+        edges.next();
+        faces.next();
+    }
+
+    /**
+     * Gets the node holding the inner face of a hexagon between corners d and d + 1. Faces alternate between upper
+     * faces (even d) and lower faces (odd d): the upper faces of C, C + d3 and C + d4 and the lower faces of
+     * C + d1, C and C + d0, C being the centre.
+     */
+    private static long getInnerFace(int cx, int cy, int d) {
+        switch (d) {
+            case 0:
+            case 3:
+                return PackedCoordinate.pack(cx, cy);
+            case 1:
+                return TriangleGrid.getPackedVertexAtEndOfEdge(cx, cy, 1);
+            case 2:
+                return TriangleGrid.getPackedVertexAtEndOfEdge(cx, cy, 3);
+            case 4:
+                return TriangleGrid.getPackedVertexAtEndOfEdge(cx, cy, 4);
+            default:
+                return TriangleGrid.getPackedVertexAtEndOfEdge(cx, cy, 0);
+        }
+    }
+
+    private static boolean edgeExistsInDirection(TriangleGrid triangleGrid, int x, int y, int direction) {
+        long end = TriangleGrid.getPackedVertexAtEndOfEdge(x, y, direction);
+        return triangleGrid.vertexExists(PackedCoordinate.x(end), PackedCoordinate.y(end));
+    }
+
+    private IncidenceTable buildEdgeTiles(TriangleGrid triangleGrid) {
+        IncidenceTable.Builder builder = new IncidenceTable.Builder(triangleGrid.getEdgeCount(), triangleGrid.getEdgeCount());
+        long[] adjacent = new long[2];
+        for (int y = 0; y < triangleGrid.getHeight(); y++) {
+            for (int x = 0; x < triangleGrid.getWidth(); x++) {
+                for (int edgeIndex = 0; edgeIndex < 3; edgeIndex++) {
+                    if (triangleGrid.edgeExists(x, y, edgeIndex)) {
+                        int count = CompositeGrid.getPackedAdjacentTilesOfEdge(x, y, edgeIndex, adjacent);
+                        for (int i = 0; i < count; i++) {
+                            int tileX = PackedCoordinate.x(adjacent[i]);
+                            int tileY = PackedCoordinate.y(adjacent[i]);
+                            if (grid.containsHexagonTile(tileX, tileY))
+                                builder.add(grid.getTileIndex(tileX, tileY));
+                        }
+                    }
+                    builder.next();
+                }
+            }
+        }
+        return builder.build();
+    }
+
+    private static IncidenceTable buildVertexEdges(TriangleGrid triangleGrid) {
+        IncidenceTable.Builder builder = new IncidenceTable.Builder(triangleGrid.getVertexCount(), triangleGrid.getVertexCount() * 6);
+        for (int y = 0; y < triangleGrid.getHeight(); y++) {
+            for (int x = 0; x < triangleGrid.getWidth(); x++) {
+                for (int direction = 0; direction < 6; direction++) {
+                    if (edgeExistsInDirection(triangleGrid, x, y, direction))
+                        builder.add(triangleGrid.getEdgeIndexInDirection(x, y, direction));
+                }
+                builder.next();
+            }
+        }
+        return builder.build();
+    }
+
+    /** Builds the reverse relation, listing the sources of each target in ascending order */
+    private static IncidenceTable invert(IncidenceTable table, int targetCount) {
+        int[] offsets = new int[targetCount + 1];
+        int[] targets = table.getTargets();
+        for (int target : targets) {
+            offsets[target + 1]++;
+        }
+        for (int i = 0; i < targetCount; i++) {
+            offsets[i + 1] += offsets[i];
+        }
+        int[] position = Arrays.copyOf(offsets, targetCount);
+        int[] sources = new int[targets.length];
+        for (int source = 0; source < table.size(); source++) {
+            for (int j = table.getStart(source); j < table.getEnd(source); j++) {
+                sources[position[targets[j]]++] = source;
+            }
+        }
+        return new IncidenceTable(offsets, sources);
+    }
+
+    public CompositeGrid getGrid() {
+        return grid;
+    }
+
+    public IncidenceTable getTileVertices() {
+        return tileVertices;
+    }
+
+    public IncidenceTable getTileEdges() {
+        return tileEdges;
+    }
+
+    public IncidenceTable getTileFaces() {
+        return tileFaces;
+    }
+
+    public IncidenceTable getEdgeTiles() {
+        return edgeTiles;
+    }
+
+    public IncidenceTable getVertexEdges() {
+        return vertexEdges;
+    }
+
+    public IncidenceTable getVertexTiles() {
+        return vertexTiles;
+    }
+
+    /**
+     * Writes the vertex indices of a tile: its centre followed by its six corners.
+     *
+     * @param x   The x-coordinate of the tile.
+     * @param y   The y-coordinate of the tile.
+     * @param out Buffer of at least 7 elements.
+     * @return The number of vertices written.
+     */
+    public int getTileVertices(int x, int y, int[] out) {
+        return tileVertices.copy(grid.getTileIndex(x, y), out);
+    }
+
+    /**
+     * Writes the edge indices of the border of a tile.
+     *
+     * @param x   The x-coordinate of the tile.
+     * @param y   The y-coordinate of the tile.
+     * @param out Buffer of at least 6 elements.
+     * @return The number of edges written.
+     */
+    public int getTileEdges(int x, int y, int[] out) {
+        return tileEdges.copy(grid.getTileIndex(x, y), out);
+    }
+
+    /**
+     * Writes the face indices of the six triangles making up a tile.
+     *
+     * @param x   The x-coordinate of the tile.
+     * @param y   The y-coordinate of the tile.
+     * @param out Buffer of at least 6 elements.
+     * @return The number of faces written.
+     */
+    public int getTileFaces(int x, int y, int[] out) {
+        return tileFaces.copy(grid.getTileIndex(x, y), out);
+    }
+
+    /**
+     * Writes the tile indices on either side of an edge.
+     *
+     * @param x         The x-coordinate of the triangle edge.
+     * @param y         The y-coordinate of the triangle edge.
+     * @param edgeIndex The index of the edge (0-2).
+     * @param out       Buffer of at least 2 elements.
+     * @return The number of tiles written (0-2).
+     */
+    public int getEdgeTiles(int x, int y, int edgeIndex, int[] out) {
+        return edgeTiles.copy(grid.getTriangleGrid().getEdgeIndex(x, y, edgeIndex), out);
+    }
+
+    /**
+     * Writes the edge indices meeting at a vertex.
+     *
+     * @param x   The x-coordinate of the vertex.
+     * @param y   The y-coordinate of the vertex.
+     * @param out Buffer of at least 6 elements.
+     * @return The number of edges written.
+     */
+    public int getVertexEdges(int x, int y, int[] out) {
+        return vertexEdges.copy(grid.getTriangleGrid().getVertexIndex(x, y), out);
+    }
+
+    /**
+     * Writes the tile indices of the hexagons containing a vertex.
+     *
+     * @param x   The x-coordinate of the vertex.
+     * @param y   The y-coordinate of the vertex.
+     * @param out Buffer of at least 3 elements.
+     * @return The number of tiles written: 1 for a hexagon centre, up to 3 for a hexagon corner.
+     */
+    public int getVertexTiles(int x, int y, int[] out) {
+        return vertexTiles.copy(grid.getTriangleGrid().getVertexIndex(x, y), out);
+    }
+}
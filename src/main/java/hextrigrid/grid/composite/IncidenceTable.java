@@ -0,0 +1,114 @@
+package hextrigrid.grid.composite;
+
+import java.util.Arrays;
+
+/**
+ * A relation from one kind of grid element to another in compressed sparse row form. The targets of source
+ * {@code i} are {@code getTargets()[getStart(i)]} to {@code getTargets()[getEnd(i) - 1]}.
+ * Elements are identified by their dense indices.
+ *
+ * @see GridIncidence
+ */
+public final class IncidenceTable {
+    private final int[] offsets;
+    private final int[] targets;
+
+    IncidenceTable(int[] offsets, int[] targets) {
+        this.offsets = offsets;
+        this.targets = targets;
+    }
+
+    /**
+     * @return The number of source elements.
+     */
+    public int size() {
+        return offsets.length - 1;
+    }
+
+    public int getStart(int source) {
+        return offsets[source];
+    }
+
+    public int getEnd(int source) {
+        return offsets[source + 1];
+    }
+
+    public int getCount(int source) {
+        return offsets[source + 1] - offsets[source];
+    }
+
+    /**
+     * Gets a target of a source element.
+     *
+     * @param source The source element.
+     * @param index  The index of the target, from 0 to {@link #getCount} - 1.
+     * @return The target element.
+     */
+    public int get(int source, int index) {
+        return targets[offsets[source] + index];
+    }
+
+    /**
+     * Copies the targets of a source element into a caller supplied buffer.
+     *
+     * @param source The source element.
+     * @param out    The buffer, large enough for {@link #getCount} targets.
+     * @return The number of targets written.
+     */
+    public int copy(int source, int[] out) {
+        int start = offsets[source];
+        int count = offsets[source + 1] - start;
+        System.arraycopy(targets, start, out, 0, count);
+        return count;
+    }
+
+    /**
+     * @return The row offsets, {@link #size()} + 1 values. Do not modify.
+     */
+    public int[] getOffsets() {
+        return offsets;
+    }
+
+    /**
+     * @return The targets of all source elements, row after row. Do not modify.
+     */
+    public int[] getTargets() {
+        return targets;
+    }
+
+    /**
+     * Collects a relation one row at a time, in source order.
+     */
+    static final class Builder {
+        private final int[] offsets;
+        private int[] targets;
+        private int source;
+
+        Builder(int sourceCount, int expectedTargets) {
+            offsets = new int[sourceCount + 1];
+            targets = new int[Math.max(expectedTargets, 16)];
+        }
+
+        void add(int target) {
+            int size = offsets[source + 1];
+            if (size == targets.length)
+                targets = Arrays.copyOf(targets, size * 2);
+            targets[size] = target;
+            offsets[source + 1] = size + 1;
+        }
+
+        /** Ends the row of the current source */
+        void next() {
+            source++;
+            if (source < offsets.length - 1)
+                offsets[source + 1] = offsets[source];
+        }
+
+        IncidenceTable build() {
+            while (source < offsets.length - 1) {
+                next();
+            }
+            return new IncidenceTable(offsets, Arrays.copyOf(targets, offsets[offsets.length - 1]));
+        }
+    }
+}
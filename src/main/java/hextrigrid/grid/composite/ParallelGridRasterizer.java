@@ -0,0 +1,190 @@
+package hextrigrid.grid.composite;
+
+import javax.imageio.ImageIO;
+import java.awt.*;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.awt.image.DirectColorModel;
+import java.awt.image.Raster;
+import java.awt.image.WritableRaster;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Renders a grid to an ARGB pixel buffer without a display, splitting the image into horizontal bands
+ * that are rendered in parallel on a {@link ForkJoinPool}.
+ * <p>
+ * Each band is drawn through {@link CompositeGridRenderer#drawGrid} with the clip set to the band, so only the
+ * nodes touching the band are visited. Bands are offset by whole pixels, which keeps the result identical to
+ * drawing the whole image on one thread. The renderer's drawing hooks are called concurrently and must therefore
+ * be thread-safe.
+ */
+public class ParallelGridRasterizer {
+    private final CompositeGridRenderer renderer;
+    private final ForkJoinPool pool;
+    /** Height of a band in pixels */
+    private final int bandHeight;
+    private final Map<RenderingHints.Key, Object> renderingHints = new HashMap<>();
+
+    /**
+     * Constructs a rasterizer using the common pool and 64 pixel bands.
+     *
+     * @param renderer The renderer used to draw each band.
+     */
+    public ParallelGridRasterizer(CompositeGridRenderer renderer) {
+        this(renderer, ForkJoinPool.commonPool(), 64);
+    }
+
+    /**
+     * Constructs a rasterizer.
+     *
+     * @param renderer   The renderer used to draw each band.
+     * @param pool       The pool bands are rendered on.
+     * @param bandHeight The height of a band in pixels.
+     */
+    public ParallelGridRasterizer(CompositeGridRenderer renderer, ForkJoinPool pool, int bandHeight) {
+        if (bandHeight <= 0)
+            throw new IllegalArgumentException("bandHeight must be positive: " + bandHeight);
+        this.renderer = renderer;
+        this.pool = pool;
+        this.bandHeight = bandHeight;
+    }
+
+    /**
+     * Sets a rendering hint applied to every band, e.g. antialiasing.
+     *
+     * @param key   The hint key.
+     * @param value The hint value.
+     */
+    public void setRenderingHint(RenderingHints.Key key, Object value) {
+        renderingHints.put(key, value);
+    }
+
+    /**
+     * Renders the grid into a new ARGB pixel buffer.
+     *
+     * @param width     The image width in pixels.
+     * @param height    The image height in pixels.
+     * @param transform The transform from the renderer's user space to image pixels.
+     * @return The pixels in row-major order, one packed ARGB value per pixel.
+     */
+    public int[] rasterize(int width, int height, AffineTransform transform) {
+        int[] argb = new int[width * height];
+        rasterize(argb, width, height, transform);
+        return argb;
+    }
+
+    /**
+     * Renders the grid into an existing ARGB pixel buffer. Every pixel of the buffer is overwritten.
+     *
+     * @param argb      The destination, at least width * height pixels in row-major order.
+     * @param width     The image width in pixels.
+     * @param height    The image height in pixels.
+     * @param transform The transform from the renderer's user space to image pixels.
+     */
+    public void rasterize(int[] argb, int width, int height, AffineTransform transform) {
+        if (argb.length < width * height)
+            throw new IllegalArgumentException("Buffer holds " + argb.length + " pixels, " + (width * height) + " needed");
+        int bands = (height + bandHeight - 1) / bandHeight;
+        if (bands == 0)
+            return;
+        pool.invoke(new BandTask(argb, width, height, new AffineTransform(transform), 0, bands));
+    }
+
+    /**
+     * Renders the grid into a new image whose pixels are held in an {@code int[]} ARGB buffer.
+     *
+     * @param width     The image width in pixels.
+     * @param height    The image height in pixels.
+     * @param transform The transform from the renderer's user space to image pixels.
+     * @return The image.
+     */
+    public BufferedImage render(int width, int height, AffineTransform transform) {
+        return toImage(rasterize(width, height, transform), width, height);
+    }
+
+    /**
+     * Renders the grid and writes it as a PNG.
+     *
+     * @param width     The image width in pixels.
+     * @param height    The image height in pixels.
+     * @param transform The transform from the renderer's user space to image pixels.
+     * @param out       The stream the PNG is written to.
+     * @throws IOException If writing fails.
+     */
+    public void writePng(int width, int height, AffineTransform transform, OutputStream out) throws IOException {
+        ImageIO.write(render(width, height, transform), "png", out);
+    }
+
+    /**
+     * Wraps an ARGB pixel buffer in a BufferedImage without copying it.
+     *
+     * @param argb   The pixels in row-major order.
+     * @param width  The image width in pixels.
+     * @param height The image height in pixels.
+     * @return An image of type {@link BufferedImage#TYPE_INT_ARGB} backed by the buffer.
+     */
+    public static BufferedImage toImage(int[] argb, int width, int height) {
+        DirectColorModel colorModel = new DirectColorModel(32, 0x00ff0000, 0x0000ff00, 0x000000ff, 0xff000000);
+        WritableRaster raster = Raster.createPackedRaster(new DataBufferInt(argb, width * height), width, height, width,
+                colorModel.getMasks(), null);
+        return new BufferedImage(colorModel, raster, false, null);
+    }
+
+    private void renderBand(int[] argb, int width, int height, AffineTransform transform, int band) {
+        int bandY = band * bandHeight;
+        int rows = Math.min(bandHeight, height - bandY);
+        BufferedImage image = new BufferedImage(width, rows, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = image.createGraphics();
+        try {
+            g.addRenderingHints(renderingHints);
+            // Band pixels are image pixels shifted up by a whole number of rows
+            g.translate(0, -bandY);
+            g.clipRect(0, bandY, width, rows);
+            g.transform(transform);
+            renderer.drawGrid(g);
+        } finally {
+            g.dispose();
+        }
+        int[] pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+        System.arraycopy(pixels, 0, argb, bandY * width, rows * width);
+    }
+
+    /**
+     * Renders a range of bands, splitting it in half until a single band remains.
+     */
+    @SuppressWarnings("serial") // never serialized
+    private class BandTask extends RecursiveAction {
+        private final int[] argb;
+        private final int width;
+        private final int height;
+        private final AffineTransform transform;
+        private final int firstBand;
+        private final int endBand;
+
+        BandTask(int[] argb, int width, int height, AffineTransform transform, int firstBand, int endBand) {
+            this.argb = argb;
+            this.width = width;
+            this.height = height;
+            this.transform = transform;
+            this.firstBand = firstBand;
+            this.endBand = endBand;
+        }
+
+        @Override
+        protected void compute() {
+            if (endBand - firstBand == 1) {
+                renderBand(argb, width, height, transform, firstBand);
+                return;
+            }
+            int middle = (firstBand + endBand) >>> 1;
+            invokeAll(new BandTask(argb, width, height, transform, firstBand, middle),
+                      new BandTask(argb, width, height, transform, middle, endBand));
+        }
+    }
+}
@@ -0,0 +1,230 @@
+package hextrigrid.grid.composite;
+
+import hextrigrid.grid.PackedCoordinate;
+import hextrigrid.grid.metrics.GridCounter;
+import hextrigrid.grid.metrics.GridMetrics;
+import hextrigrid.grid.triangle.TriangleCoordinate;
+
+import java.awt.*;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Caches the output of a {@link CompositeGridRenderer} in off-screen image tiles.
+ * <p>
+ * The user space of {@link CompositeGridRenderer#drawGrid} is divided into square image tiles which are rendered
+ * on first use and then only blitted. Callers mark hexagon tiles, edges or vertices dirty when their appearance
+ * changes, and only the image tiles those elements touch are re-rendered on the next {@link #draw}.
+ * Images are rendered at a fixed scale; drawing under a transform with a different scale resamples them.
+ * <p>
+ * At most a fixed number of images is kept; the least recently drawn ones are released first, so panning across a
+ * large grid does not grow memory without limit. The maximum should cover the image tiles of one view.
+ * <p>
+ * This class is not thread-safe.
+ */
+public class RasterTileCache {
+    public static final int DEFAULT_MAX_IMAGES = 256;
+
+    private final CompositeGridRenderer renderer;
+    /** Size of an image tile in user space */
+    private final double tileSize;
+    /** Size of an image tile in pixels */
+    private final int tilePixels;
+    /** Scale from user space to image pixels */
+    private final double scale;
+    /** Maximum number of cached image tiles */
+    private final int maxImages;
+    /** Image tiles keyed by packed image tile coordinate, least recently drawn first */
+    private final LinkedHashMap<Long, CachedImage> images;
+
+    private static class CachedImage {
+        final BufferedImage image;
+        boolean dirty = true;
+
+        CachedImage(int size) {
+            image = new BufferedImage(size, size, BufferedImage.TYPE_INT_ARGB);
+        }
+    }
+
+    /**
+     * Constructs a cache rendering at a scale of 1.
+     *
+     * @param renderer   The renderer whose output is cached.
+     * @param tilePixels The width and height of an image tile in pixels.
+     */
+    public RasterTileCache(CompositeGridRenderer renderer, int tilePixels) {
+        this(renderer, tilePixels, 1);
+    }
+
+    /**
+     * Constructs a cache.
+     *
+     * @param renderer   The renderer whose output is cached.
+     * @param tilePixels The width and height of an image tile in pixels.
+     * @param scale      The number of image pixels per unit of the renderer's user space.
+     */
+    public RasterTileCache(CompositeGridRenderer renderer, int tilePixels, double scale) {
+        this(renderer, tilePixels, scale, DEFAULT_MAX_IMAGES);
+    }
+
+    /**
+     * Constructs a cache holding a limited number of image tiles.
+     *
+     * @param renderer   The renderer whose output is cached.
+     * @param tilePixels The width and height of an image tile in pixels.
+     * @param scale      The number of image pixels per unit of the renderer's user space.
+     * @param maxImages  The maximum number of cached image tiles.
+     */
+    public RasterTileCache(CompositeGridRenderer renderer, int tilePixels, double scale, int maxImages) {
+        if (maxImages < 1)
+            throw new IllegalArgumentException("maxImages must be positive: " + maxImages);
+        this.renderer = renderer;
+        this.tilePixels = tilePixels;
+        this.scale = scale;
+        this.tileSize = tilePixels / scale;
+        this.maxImages = maxImages;
+        this.images = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, CachedImage> eldest) {
+                return size() > RasterTileCache.this.maxImages;
+            }
+        };
+    }
+
+    /**
+     * Draws the grid from the cache, first re-rendering any visible image tile that is missing or dirty.
+     *
+     * @param g2d The Graphics2D object to draw onto, in the same user space as {@link CompositeGridRenderer#drawGrid}.
+     */
+    public void draw(Graphics2D g2d) {
+        Rectangle2D area = renderer.getGridBounds();
+        Rectangle clip = g2d.getClipBounds();
+        if (clip != null)
+            Rectangle2D.intersect(area, clip, area);
+        if (area.isEmpty())
+            return;
+
+        int minTileX = (int) Math.floor(area.getMinX() / tileSize);
+        int minTileY = (int) Math.floor(area.getMinY() / tileSize);
+        int maxTileX = (int) Math.floor(area.getMaxX() / tileSize);
+        int maxTileY = (int) Math.floor(area.getMaxY() / tileSize);
+        AffineTransform imageTransform = new AffineTransform();
+
+        for (int tileY = minTileY; tileY <= maxTileY; tileY++) {
+            for (int tileX = minTileX; tileX <= maxTileX; tileX++) {
+                Long key = PackedCoordinate.pack(tileX, tileY);
+                CachedImage cached = images.get(key);
+                if (cached == null) {
+                    cached = new CachedImage(tilePixels);
+                    images.put(key, cached);
+                }
+                if (cached.dirty) {
+                    GridMetrics.increment(GridCounter.RASTER_CACHE_MISSES);
+                    render(cached.image, tileX, tileY, g2d.getRenderingHints());
+                    cached.dirty = false;
+                } else {
+                    GridMetrics.increment(GridCounter.RASTER_CACHE_HITS);
+                }
+
+                imageTransform.setToTranslation(tileX * tileSize, tileY * tileSize);
+                imageTransform.scale(1 / scale, 1 / scale);
+                g2d.drawImage(cached.image, imageTransform, null);
+            }
+        }
+    }
+
+    private void render(BufferedImage image, int tileX, int tileY, Map<?, ?> hints) {
+        Graphics2D g = image.createGraphics();
+        try {
+            g.setComposite(AlphaComposite.Clear);
+            g.fillRect(0, 0, tilePixels, tilePixels);
+            g.setComposite(AlphaComposite.SrcOver);
+            g.addRenderingHints(hints);
+
+            g.scale(scale, scale);
+            g.translate(-tileX * tileSize, -tileY * tileSize);
+            g.clip(new Rectangle2D.Double(tileX * tileSize, tileY * tileSize, tileSize, tileSize));
+            renderer.drawGrid(g);
+        } finally {
+            g.dispose();
+        }
+    }
+
+    /**
+     * Marks the image tiles covering a hexagon tile dirty.
+     *
+     * @param x The hexagon x-coordinate.
+     * @param y The hexagon y-coordinate.
+     */
+    public void markTileDirty(int x, int y) {
+        long centre = TriangleCoordinate.getPackedHexagonCentre(x, y);
+        markNodeDirty(PackedCoordinate.x(centre), PackedCoordinate.y(centre), renderer.hexagon.edgeLength);
+    }
+
+    /**
+     * Marks the image tiles covering an edge dirty.
+     *
+     * @param x         The x-coordinate of the node holding the edge.
+     * @param y         The y-coordinate of the node holding the edge.
+     * @param edgeIndex The index of the edge (0-2).
+     */
+    public void markEdgeDirty(int x, int y, int edgeIndex) {
+        // Anything drawn for an edge lies within the culling margin of the node holding it
+        markNodeDirty(x, y, 0);
+    }
+
+    /**
+     * Marks the image tiles covering a vertex dirty.
+     *
+     * @param x The x-coordinate of the vertex.
+     * @param y The y-coordinate of the vertex.
+     */
+    public void markVertexDirty(int x, int y) {
+        markNodeDirty(x, y, 0);
+    }
+
+    private void markNodeDirty(int x, int y, double extent) {
+        double radius = renderer.getCullingMargin() + extent;
+        double nodeX = renderer.getNodeX(x, y);
+        double nodeY = renderer.getNodeY(y);
+        markAreaDirty(new Rectangle2D.Double(nodeX - radius, nodeY - radius, 2 * radius, 2 * radius));
+    }
+
+    /**
+     * Marks the image tiles intersecting an area of user space dirty.
+     *
+     * @param area The area, in the user space of {@link CompositeGridRenderer#drawGrid}.
+     */
+    public void markAreaDirty(Rectangle2D area) {
+        int minTileX = (int) Math.floor(area.getMinX() / tileSize);
+        int minTileY = (int) Math.floor(area.getMinY() / tileSize);
+        int maxTileX = (int) Math.floor(area.getMaxX() / tileSize);
+        int maxTileY = (int) Math.floor(area.getMaxY() / tileSize);
+        for (int tileY = minTileY; tileY <= maxTileY; tileY++) {
+            for (int tileX = minTileX; tileX <= maxTileX; tileX++) {
+                CachedImage cached = images.get(PackedCoordinate.pack(tileX, tileY));
+                if (cached != null)
+                    cached.dirty = true;
+            }
+        }
+    }
+
+    /**
+     * Marks every cached image tile dirty.
+     */
+    public void markAllDirty() {
+        for (CachedImage cached : images.values()) {
+            cached.dirty = true;
+        }
+    }
+
+    /**
+     * Releases every cached image tile.
+     */
+    public void clear() {
+        images.clear();
+    }
+}
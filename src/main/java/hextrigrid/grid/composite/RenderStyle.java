@@ -0,0 +1,81 @@
+package hextrigrid.grid.composite;
+
+import java.awt.*;
+import java.util.Objects;
+
+/**
+ * Immutable drawing style used as a grouping key by {@link CompositeGridRenderer#drawGridBatched}.
+ * Elements sharing an equal style are appended to one path and drawn with a single fill and/or draw call,
+ * so styles should be reused rather than created per element.
+ */
+public final class RenderStyle {
+    private final Color fill;
+    private final Color outline;
+    private final Stroke stroke;
+
+    private RenderStyle(Color fill, Color outline, Stroke stroke) {
+        this.fill = fill;
+        this.outline = outline;
+        this.stroke = stroke;
+    }
+
+    /**
+     * Creates a style that fills shapes (hexagons, vertex discs).
+     *
+     * @param fill The fill colour.
+     * @return The style.
+     */
+    public static RenderStyle fill(Color fill) {
+        return new RenderStyle(fill, null, null);
+    }
+
+    /**
+     * Creates a style that strokes lines and outlines (edges, vertex discs).
+     *
+     * @param outline The stroke colour.
+     * @param stroke  The stroke.
+     * @return The style.
+     */
+    public static RenderStyle stroke(Color outline, Stroke stroke) {
+        return new RenderStyle(null, outline, stroke);
+    }
+
+    /**
+     * Creates a style that fills shapes and then strokes their outline.
+     *
+     * @param fill    The fill colour.
+     * @param outline The stroke colour.
+     * @param stroke  The stroke.
+     * @return The style.
+     */
+    public static RenderStyle fillAndStroke(Color fill, Color outline, Stroke stroke) {
+        return new RenderStyle(fill, outline, stroke);
+    }
+
+    public Color getFill() {
+        return fill;
+    }
+
+    public Color getOutline() {
+        return outline;
+    }
+
+    public Stroke getStroke() {
+        return stroke;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o)
+            return true;
+        if (!(o instanceof RenderStyle))
+            return false;
+        RenderStyle style = (RenderStyle) o;
+        return Objects.equals(fill, style.fill) && Objects.equals(outline, style.outline) && Objects.equals(stroke, style.stroke);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(fill, outline, stroke);
+    }
+}
@@ -0,0 +1,115 @@
+package hextrigrid.grid.composite;
+
+import java.util.function.IntBinaryOperator;
+
+/**
+ * A mip-style pyramid of average tile colours. Level 0 holds one ARGB colour per tile; each further level halves
+ * both dimensions, every entry averaging the (up to) four entries below it. Averages are alpha weighted, so
+ * transparent tiles do not darken their block.
+ * <p>
+ * Changing one tile costs one update per level (see {@link #update}).
+ */
+public class TileColorMipmap {
+    private final int[][] colors;
+    private final int[] widths;
+    private final int[] heights;
+
+    /**
+     * Builds the pyramid.
+     *
+     * @param width  The number of tile columns.
+     * @param height The number of tile rows.
+     * @param source Gives the ARGB colour of the tile at (x, y).
+     */
+    public TileColorMipmap(int width, int height, IntBinaryOperator source) {
+        int levels = 1;
+        for (int size = Math.max(width, height); size > 1; size = (size + 1) / 2) {
+            levels++;
+        }
+        colors = new int[levels][];
+        widths = new int[levels];
+        heights = new int[levels];
+        for (int level = 0; level < levels; level++) {
+            widths[level] = level == 0 ? width : (widths[level - 1] + 1) / 2;
+            heights[level] = level == 0 ? height : (heights[level - 1] + 1) / 2;
+            colors[level] = new int[widths[level] * heights[level]];
+        }
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                colors[0][y * width + x] = source.applyAsInt(x, y);
+            }
+        }
+        for (int level = 1; level < levels; level++) {
+            for (int y = 0; y < heights[level]; y++) {
+                for (int x = 0; x < widths[level]; x++) {
+                    colors[level][y * widths[level] + x] = average(level - 1, x * 2, y * 2);
+                }
+            }
+        }
+    }
+
+    public int getLevelCount() {
+        return colors.length;
+    }
+
+    public int getWidth(int level) {
+        return widths[level];
+    }
+
+    public int getHeight(int level) {
+        return heights[level];
+    }
+
+    /**
+     * Gets the average colour of a block of tiles.
+     *
+     * @param level The level; a block at level {@code k} covers {@code 2^k} x {@code 2^k} tiles.
+     * @param x     The block column.
+     * @param y     The block row.
+     * @return The ARGB colour.
+     */
+    public int getColor(int level, int x, int y) {
+        return colors[level][y * widths[level] + x];
+    }
+
+    /**
+     * Changes the colour of one tile and of every block containing it.
+     *
+     * @param x     The tile x-coordinate.
+     * @param y     The tile y-coordinate.
+     * @param color The new ARGB colour.
+     */
+    public void update(int x, int y, int color) {
+        colors[0][y * widths[0] + x] = color;
+        for (int level = 1; level < colors.length; level++) {
+            x >>= 1;
+            y >>= 1;
+            colors[level][y * widths[level] + x] = average(level - 1, x * 2, y * 2);
+        }
+    }
+
+    /** Alpha weighted average of the 2x2 entries at (x, y) of a level, clipped to the level */
+    private int average(int level, int x, int y) {
+        long alpha = 0;
+        long red = 0;
+        long green = 0;
+        long blue = 0;
+        int count = 0;
+        for (int dy = 0; dy < 2; dy++) {
+            for (int dx = 0; dx < 2; dx++) {
+                if (x + dx >= widths[level] || y + dy >= heights[level])
+                    continue;
+                int color = colors[level][(y + dy) * widths[level] + x + dx];
+                int a = color >>> 24;
+                alpha += a;
+                red += a * ((color >> 16) & 0xff);
+                green += a * ((color >> 8) & 0xff);
+                blue += a * (color & 0xff);
+                count++;
+            }
+        }
+        if (alpha == 0)
+            return 0;
+        return (int) (alpha / count) << 24 | (int) (red / alpha) << 16 | (int) (green / alpha) << 8 | (int) (blue / alpha);
+    }
+}
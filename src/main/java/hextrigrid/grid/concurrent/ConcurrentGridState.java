@@ -0,0 +1,379 @@
+package hextrigrid.grid.concurrent;
+
+import hextrigrid.grid.PackedCoordinate;
+import hextrigrid.grid.change.GridChangeLog;
+import hextrigrid.grid.composite.CompositeGrid;
+import hextrigrid.grid.triangle.TriangleGrid;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Per-element {@code int} state of a {@link CompositeGrid} that may be read and written from many threads.
+ * <p>
+ * Each tile, vertex, edge and face has one cell, addressed by the grid's dense indices. Single cells are read with
+ * acquire semantics and written with release stores or lock-free compare-and-set, so readers never block and
+ * never block writers.
+ * <p>
+ * Operations spanning several cells ({@link #updateEdgeAndTiles}, {@link #runLocked}) hold striped locks keyed by
+ * row band: tile row {@code y} belongs to band {@code y / bandHeight}, and triangle row {@code y} to the band of
+ * tile row {@code y / 2}. Locks are always taken in ascending stripe order, so these operations cannot deadlock.
+ * They are atomic with respect to each other; a lock-free single-cell write to a cell that multi-cell operations
+ * also manage can interleave with them, so such cells should be written under {@link #runLocked} instead.
+ * <p>
+ * With a {@link GridChangeLog} attached, every successful write is recorded: sets, successful compare-and-sets,
+ * updates, and committed multi-cell updates.
+ */
+public class ConcurrentGridState {
+    private static final VarHandle CELLS = MethodHandles.arrayElementVarHandle(int[].class);
+    public static final int DEFAULT_BAND_HEIGHT = 8;
+    public static final int DEFAULT_STRIPE_COUNT = 64;
+
+    private final CompositeGrid grid;
+    private final TriangleGrid triangleGrid;
+    private final int[] tiles;
+    private final int[] vertices;
+    private final int[] edges;
+    private final int[] faces;
+    private final int bandHeight;
+    private final ReentrantLock[] stripes;
+    private volatile GridChangeLog changeLog;
+
+    public ConcurrentGridState(CompositeGrid grid) {
+        this(grid, DEFAULT_BAND_HEIGHT, DEFAULT_STRIPE_COUNT);
+    }
+
+    /**
+     * @param grid        The grid the state belongs to.
+     * @param bandHeight  The number of tile rows sharing a lock stripe.
+     * @param stripeCount The number of locks; bands beyond it wrap around.
+     */
+    public ConcurrentGridState(CompositeGrid grid, int bandHeight, int stripeCount) {
+        if (bandHeight <= 0 || stripeCount <= 0)
+            throw new IllegalArgumentException("bandHeight and stripeCount must be positive");
+        this.grid = grid;
+        this.triangleGrid = grid.getTriangleGrid();
+        this.tiles = new int[grid.getTileCount()];
+        this.vertices = new int[triangleGrid.getVertexCount()];
+        this.edges = new int[triangleGrid.getEdgeCount()];
+        this.faces = new int[triangleGrid.getFaceCount()];
+        this.bandHeight = bandHeight;
+        this.stripes = new ReentrantLock[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+
+    public CompositeGrid getGrid() {
+        return grid;
+    }
+
+    public GridChangeLog getChangeLog() {
+        return changeLog;
+    }
+
+    /**
+     * Attaches a change log that successful writes are recorded into, usually {@link CompositeGrid#getChangeLog()}.
+     *
+     * @param changeLog The log, or {@code null} to stop recording.
+     */
+    public void setChangeLog(GridChangeLog changeLog) {
+        this.changeLog = changeLog;
+    }
+
+    // Tiles
+
+    public int getTileState(int x, int y) {
+        return (int) CELLS.getAcquire(tiles, grid.getTileIndex(x, y));
+    }
+
+    public void setTileState(int x, int y, int state) {
+        CELLS.setRelease(tiles, grid.getTileIndex(x, y), state);
+        recordTile(x, y);
+    }
+
+    public boolean compareAndSetTileState(int x, int y, int expected, int state) {
+        if (!CELLS.compareAndSet(tiles, grid.getTileIndex(x, y), expected, state))
+            return false;
+        recordTile(x, y);
+        return true;
+    }
+
+    public int updateTileState(int x, int y, IntUnaryOperator update) {
+        int state = update(tiles, grid.getTileIndex(x, y), update);
+        recordTile(x, y);
+        return state;
+    }
+
+    // Vertices
+
+    public int getVertexState(int x, int y) {
+        return (int) CELLS.getAcquire(vertices, triangleGrid.getVertexIndex(x, y));
+    }
+
+    public void setVertexState(int x, int y, int state) {
+        CELLS.setRelease(vertices, triangleGrid.getVertexIndex(x, y), state);
+        recordVertex(x, y);
+    }
+
+    public boolean compareAndSetVertexState(int x, int y, int expected, int state) {
+        if (!CELLS.compareAndSet(vertices, triangleGrid.getVertexIndex(x, y), expected, state))
+            return false;
+        recordVertex(x, y);
+        return true;
+    }
+
+    public int updateVertexState(int x, int y, IntUnaryOperator update) {
+        int state = update(vertices, triangleGrid.getVertexIndex(x, y), update);
+        recordVertex(x, y);
+        return state;
+    }
+
+    // Edges
+
+    public int getEdgeState(int x, int y, int edgeIndex) {
+        return (int) CELLS.getAcquire(edges, triangleGrid.getEdgeIndex(x, y, edgeIndex));
+    }
+
+    public void setEdgeState(int x, int y, int edgeIndex, int state) {
+        CELLS.setRelease(edges, triangleGrid.getEdgeIndex(x, y, edgeIndex), state);
+        recordEdge(x, y, edgeIndex);
+    }
+
+    public boolean compareAndSetEdgeState(int x, int y, int edgeIndex, int expected, int state) {
+        if (!CELLS.compareAndSet(edges, triangleGrid.getEdgeIndex(x, y, edgeIndex), expected, state))
+            return false;
+        recordEdge(x, y, edgeIndex);
+        return true;
+    }
+
+    public int updateEdgeState(int x, int y, int edgeIndex, IntUnaryOperator update) {
+        int state = update(edges, triangleGrid.getEdgeIndex(x, y, edgeIndex), update);
+        recordEdge(x, y, edgeIndex);
+        return state;
+    }
+
+    // Faces
+
+    public int getFaceState(int x, int y, boolean pointing) {
+        return (int) CELLS.getAcquire(faces, triangleGrid.getFaceIndex(x, y, pointing));
+    }
+
+    public void setFaceState(int x, int y, boolean pointing, int state) {
+        CELLS.setRelease(faces, triangleGrid.getFaceIndex(x, y, pointing), state);
+        recordFace(x, y, pointing);
+    }
+
+    public boolean compareAndSetFaceState(int x, int y, boolean pointing, int expected, int state) {
+        if (!CELLS.compareAndSet(faces, triangleGrid.getFaceIndex(x, y, pointing), expected, state))
+            return false;
+        recordFace(x, y, pointing);
+        return true;
+    }
+
+    public int updateFaceState(int x, int y, boolean pointing, IntUnaryOperator update) {
+        int state = update(faces, triangleGrid.getFaceIndex(x, y, pointing), update);
+        recordFace(x, y, pointing);
+        return state;
+    }
+
+    /**
+     * Atomically updates an edge together with the tiles on either side of it. The stripes of the edge and of both
+     * tiles are held while the update runs, so concurrent calls on overlapping elements are serialised.
+     *
+     * @param x         The x-coordinate of the triangle edge.
+     * @param y         The y-coordinate of the triangle edge.
+     * @param edgeIndex The index of the edge (0-2).
+     * @param update    Computes the new states.
+     * @return true if the update committed.
+     */
+    public boolean updateEdgeAndTiles(int x, int y, int edgeIndex, EdgeTilesUpdate update) {
+        long[] adjacent = new long[2];
+        int count = CompositeGrid.getPackedAdjacentTilesOfEdge(x, y, edgeIndex, adjacent);
+        int[] tileIndices = new int[2];
+        long[] tileCoordinates = new long[2];
+        int tileCount = 0;
+        int[] lockedStripes = new int[3];
+        lockedStripes[0] = getStripe(y / 2);
+        for (int i = 0; i < count; i++) {
+            int tileX = PackedCoordinate.x(adjacent[i]);
+            int tileY = PackedCoordinate.y(adjacent[i]);
+            if (grid.containsHexagonTile(tileX, tileY)) {
+                tileIndices[tileCount] = grid.getTileIndex(tileX, tileY);
+                tileCoordinates[tileCount] = adjacent[i];
+                lockedStripes[++tileCount] = getStripe(tileY);
+            }
+        }
+        int stripeCount = sortDistinct(lockedStripes, tileCount + 1);
+
+        int edge = triangleGrid.getEdgeIndex(x, y, edgeIndex);
+        int[] states = new int[1 + tileCount];
+        lock(lockedStripes, stripeCount);
+        try {
+            states[0] = (int) CELLS.getAcquire(edges, edge);
+            for (int i = 0; i < tileCount; i++) {
+                states[1 + i] = (int) CELLS.getAcquire(tiles, tileIndices[i]);
+            }
+            if (!update.update(states, tileCount))
+                return false;
+            CELLS.setRelease(edges, edge, states[0]);
+            for (int i = 0; i < tileCount; i++) {
+                CELLS.setRelease(tiles, tileIndices[i], states[1 + i]);
+            }
+            recordEdge(x, y, edgeIndex);
+            for (int i = 0; i < tileCount; i++) {
+                recordTile(PackedCoordinate.x(tileCoordinates[i]), PackedCoordinate.y(tileCoordinates[i]));
+            }
+            return true;
+        } finally {
+            unlock(lockedStripes, stripeCount);
+        }
+    }
+
+    /**
+     * Atomically sets an edge and its adjacent tiles if the edge and every adjacent tile hold the expected states.
+     *
+     * @param x             The x-coordinate of the triangle edge.
+     * @param y             The y-coordinate of the triangle edge.
+     * @param edgeIndex     The index of the edge (0-2).
+     * @param expectedEdge  The expected edge state.
+     * @param edgeState     The new edge state.
+     * @param expectedTiles The expected state of each adjacent tile.
+     * @param tileState     The new state of each adjacent tile.
+     * @return true if the states matched and were replaced.
+     */
+    public boolean compareAndSetEdgeAndTiles(int x, int y, int edgeIndex, int expectedEdge, int edgeState,
+                                             int expectedTiles, int tileState) {
+        return updateEdgeAndTiles(x, y, edgeIndex, (states, tileCount) -> {
+            if (states[0] != expectedEdge)
+                return false;
+            for (int i = 1; i <= tileCount; i++) {
+                if (states[i] != expectedTiles)
+                    return false;
+            }
+            states[0] = edgeState;
+            for (int i = 1; i <= tileCount; i++) {
+                states[i] = tileState;
+            }
+            return true;
+        });
+    }
+
+    /**
+     * Runs an action while holding the stripes of a range of tile rows, excluding multi-cell operations on them.
+     * Triangle rows {@code 2 * fromRow} to {@code 2 * toRow + 1} are covered as well.
+     *
+     * @param fromRow The first tile row.
+     * @param toRow   The last tile row (inclusive).
+     * @param action  The action.
+     */
+    public void runLocked(int fromRow, int toRow, Runnable action) {
+        int firstBand = Math.max(0, fromRow) / bandHeight;
+        int lastBand = Math.max(0, toRow) / bandHeight;
+        int bandCount = Math.min(stripes.length, lastBand - firstBand + 1);
+        int[] lockedStripes = new int[bandCount];
+        for (int i = 0; i < bandCount; i++) {
+            lockedStripes[i] = (firstBand + i) % stripes.length;
+        }
+        int stripeCount = sortDistinct(lockedStripes, bandCount);
+        lock(lockedStripes, stripeCount);
+        try {
+            action.run();
+        } finally {
+            unlock(lockedStripes, stripeCount);
+        }
+    }
+
+    /**
+     * Copies the tile states into an array without taking any lock. Each value is read atomically, but writes made
+     * during the copy may be only partly reflected.
+     *
+     * @param out The array receiving one state per tile index.
+     */
+    public void copyTileStates(int[] out) {
+        copy(tiles, out);
+    }
+
+    public void copyVertexStates(int[] out) {
+        copy(vertices, out);
+    }
+
+    public void copyEdgeStates(int[] out) {
+        copy(edges, out);
+    }
+
+    public void copyFaceStates(int[] out) {
+        copy(faces, out);
+    }
+
+    private void recordTile(int x, int y) {
+        GridChangeLog log = changeLog;
+        if (log != null)
+            log.tileChanged(x, y);
+    }
+
+    private void recordVertex(int x, int y) {
+        GridChangeLog log = changeLog;
+        if (log != null)
+            log.vertexChanged(x, y);
+    }
+
+    private void recordEdge(int x, int y, int edgeIndex) {
+        GridChangeLog log = changeLog;
+        if (log != null)
+            log.edgeChanged(x, y, edgeIndex);
+    }
+
+    private void recordFace(int x, int y, boolean pointing) {
+        GridChangeLog log = changeLog;
+        if (log != null)
+            log.faceChanged(x, y, pointing);
+    }
+
+    private static int update(int[] cells, int index, IntUnaryOperator update) {
+        int current = (int) CELLS.getAcquire(cells, index);
+        while (true) {
+            int next = update.applyAsInt(current);
+            int witness = (int) CELLS.compareAndExchange(cells, index, current, next);
+            if (witness == current)
+                return next;
+            current = witness;
+        }
+    }
+
+    private static void copy(int[] cells, int[] out) {
+        for (int i = 0; i < cells.length; i++) {
+            out[i] = (int) CELLS.getAcquire(cells, i);
+        }
+    }
+
+    private int getStripe(int tileRow) {
+        return (Math.max(0, tileRow) / bandHeight) % stripes.length;
+    }
+
+    private void lock(int[] lockedStripes, int count) {
+        for (int i = 0; i < count; i++) {
+            stripes[lockedStripes[i]].lock();
+        }
+    }
+
+    private void unlock(int[] lockedStripes, int count) {
+        for (int i = count - 1; i >= 0; i--) {
+            stripes[lockedStripes[i]].unlock();
+        }
+    }
+
+    /** Sorts the first {@code count} values and removes duplicates, returning the new count */
+    private static int sortDistinct(int[] values, int count) {
+        Arrays.sort(values, 0, count);
+        int distinct = 0;
+        for (int i = 0; i < count; i++) {
+            if (distinct == 0 || values[distinct - 1] != values[i])
+                values[distinct++] = values[i];
+        }
+        return distinct;
+    }
+}
@@ -0,0 +1,18 @@
+package hextrigrid.grid.concurrent;
+
+/**
+ * An update applied atomically to an edge and the tiles on either side of it,
+ * see {@link ConcurrentGridState#updateEdgeAndTiles}.
+ */
+public interface EdgeTilesUpdate {
+    /**
+     * Computes the new states. {@code states[0]} holds the edge state and {@code states[1]} to
+     * {@code states[tileCount]} the states of the adjacent tiles inside the grid, in the order
+     * {@link hextrigrid.grid.composite.CompositeGrid#getAdjacentTilesOfEdge(int, int, int, long[])} returns them.
+     *
+     * @param states    The current states, to be overwritten with the new states.
+     * @param tileCount The number of adjacent tiles inside the grid (0-2).
+     * @return true to commit the new states, false to leave every state unchanged.
+     */
+    boolean update(int[] states, int tileCount);
+}
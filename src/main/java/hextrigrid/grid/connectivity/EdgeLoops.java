@@ -0,0 +1,233 @@
+package hextrigrid.grid.connectivity;
+
+import hextrigrid.grid.PackedCoordinate;
+import hextrigrid.grid.composite.CompositeGrid;
+import hextrigrid.grid.triangle.TriangleCoordinate;
+import hextrigrid.grid.triangle.TriangleGrid;
+
+/**
+ * Tracks claimed edges of a {@link CompositeGrid} and the tiles that closed loops of claimed edges enclose.
+ * <p>
+ * Claimed edges are held in a bitset indexed by {@link TriangleGrid#getEdgeIndex}. A union-find over the triangle
+ * vertices joins the end points of every claimed edge, so claiming an edge whose end points are already connected
+ * is detected as closing a loop in near-constant time. Enclosure is decided on the dual graph: tiles are joined
+ * across every hexagon border that is not claimed, the area beyond the grid counts as one outside tile, and tiles
+ * that cannot reach the outside are enclosed. The dual labelling is recomputed lazily after changes.
+ */
+public class EdgeLoops {
+    private final CompositeGrid grid;
+    private final TriangleGrid triangleGrid;
+    private final int width;
+    private final int height;
+    private final long[] claimed;
+    private final UnionFind vertices;
+    /** Tiles plus one trailing element standing for everything outside the grid */
+    private final UnionFind tiles;
+    private final int outside;
+    private final long[] adjacent = new long[2];
+    private boolean verticesStale;
+    private boolean tilesStale = true;
+
+    public EdgeLoops(CompositeGrid grid) {
+        this.grid = grid;
+        this.triangleGrid = grid.getTriangleGrid();
+        this.width = grid.getWidth();
+        this.height = grid.getHeight();
+        this.claimed = new long[(triangleGrid.getEdgeCount() + 63) >>> 6];
+        this.vertices = new UnionFind(triangleGrid.getVertexCount());
+        this.tiles = new UnionFind(width * height + 1);
+        this.outside = width * height;
+    }
+
+    /**
+     * Claims an edge.
+     *
+     * @param x         The x-coordinate of the node holding the edge.
+     * @param y         The y-coordinate of the node holding the edge.
+     * @param edgeIndex The index of the edge (0-2).
+     * @return {@code true} if the edge closes a loop of claimed edges; {@code false} also if the edge does not exist.
+     */
+    public boolean claimEdge(int x, int y, int edgeIndex) {
+        if (!edgeExists(x, y, edgeIndex))
+            return false;
+        int edge = triangleGrid.getEdgeIndex(x, y, edgeIndex);
+        if (isClaimed(edge))
+            return false;
+        claimed[edge >>> 6] |= 1L << edge;
+        tilesStale = true;
+        ensureVerticesLabelled();
+        long end = TriangleGrid.getPackedVertexAtEndOfEdge(x, y, edgeIndex);
+        return !vertices.union(triangleGrid.getVertexIndex(x, y),
+                               triangleGrid.getVertexIndex(PackedCoordinate.x(end), PackedCoordinate.y(end)));
+    }
+
+    /**
+     * Releases a claimed edge. Loops can split, so the vertex components are rebuilt on the next claim or query.
+     * Edges that do not exist are ignored.
+     *
+     * @param x         The x-coordinate of the node holding the edge.
+     * @param y         The y-coordinate of the node holding the edge.
+     * @param edgeIndex The index of the edge (0-2).
+     */
+    public void unclaimEdge(int x, int y, int edgeIndex) {
+        if (!edgeExists(x, y, edgeIndex))
+            return;
+        int edge = triangleGrid.getEdgeIndex(x, y, edgeIndex);
+        if (!isClaimed(edge))
+            return;
+        claimed[edge >>> 6] &= ~(1L << edge);
+        tilesStale = true;
+        verticesStale = true;
+    }
+
+    public boolean isClaimed(int x, int y, int edgeIndex) {
+        return edgeExists(x, y, edgeIndex) && isClaimed(triangleGrid.getEdgeIndex(x, y, edgeIndex));
+    }
+
+    /**
+     * Checks that a node holds an edge that survived border trimming, so both of its end points have vertex indices.
+     */
+    private boolean edgeExists(int x, int y, int edgeIndex) {
+        return edgeIndex >= 0 && edgeIndex < 3 && triangleGrid.vertexExists(x, y) && triangleGrid.edgeExists(x, y, edgeIndex);
+    }
+
+    private boolean isClaimed(int edge) {
+        return (claimed[edge >>> 6] & (1L << edge)) != 0;
+    }
+
+    /**
+     * Gets the component id of a vertex in the graph of claimed edges.
+     *
+     * @param x The x-coordinate of the vertex.
+     * @param y The y-coordinate of the vertex.
+     * @return The component id; vertices joined by claimed edges share an id.
+     */
+    public int getVertexComponent(int x, int y) {
+        ensureVerticesLabelled();
+        return vertices.find(triangleGrid.getVertexIndex(x, y));
+    }
+
+    /**
+     * Checks whether a tile is enclosed by claimed edges.
+     *
+     * @param x The x-coordinate of the tile.
+     * @param y The y-coordinate of the tile.
+     * @return {@code true} if the tile cannot reach the outside of the grid without crossing a claimed edge.
+     */
+    public boolean isEnclosed(int x, int y) {
+        ensureTilesLabelled();
+        return !tiles.connected(y * width + x, outside);
+    }
+
+    /**
+     * Writes the indices ({@code y * width + x}) of every enclosed tile.
+     *
+     * @param out Array of at least width * height entries.
+     * @return The number of tiles written.
+     */
+    public int getEnclosedTiles(int[] out) {
+        ensureTilesLabelled();
+        int outsideRoot = tiles.find(outside);
+        int count = 0;
+        for (int i = 0; i < outside; i++) {
+            if (tiles.find(i) != outsideRoot)
+                out[count++] = i;
+        }
+        return count;
+    }
+
+    /**
+     * Writes the indices ({@code y * width + x}) of the tiles enclosed on either side of an edge, i.e. the enclosed
+     * areas bounded by the loop through that edge.
+     *
+     * @param x         The x-coordinate of the node holding the edge.
+     * @param y         The y-coordinate of the node holding the edge.
+     * @param edgeIndex The index of the edge (0-2).
+     * @param out       Array of at least width * height entries.
+     * @return The number of tiles written.
+     */
+    public int getTilesEnclosedBy(int x, int y, int edgeIndex, int[] out) {
+        ensureTilesLabelled();
+        int adjacentCount = grid.getAdjacentTilesOfEdge(x, y, edgeIndex, adjacent);
+        int outsideRoot = tiles.find(outside);
+        int rootA = -1;
+        int rootB = -1;
+        for (int i = 0; i < adjacentCount; i++) {
+            int tileX = PackedCoordinate.x(adjacent[i]);
+            int tileY = PackedCoordinate.y(adjacent[i]);
+            if (!grid.containsHexagonTile(tileX, tileY))
+                continue;
+            int root = tiles.find(tileY * width + tileX);
+            if (root == outsideRoot)
+                continue;
+            if (rootA == -1)
+                rootA = root;
+            else
+                rootB = root;
+        }
+        if (rootA == -1)
+            return 0;
+
+        int count = 0;
+        for (int i = 0; i < outside; i++) {
+            int root = tiles.find(i);
+            if (root == rootA || root == rootB)
+                out[count++] = i;
+        }
+        return count;
+    }
+
+    private void ensureVerticesLabelled() {
+        if (!verticesStale)
+            return;
+        vertices.reset();
+        for (int word = 0; word < claimed.length; word++) {
+            long bits = claimed[word];
+            while (bits != 0) {
+                int edge = (word << 6) + Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+                int vertex = edge / 3;
+                int x = vertex % triangleGrid.getWidth();
+                int y = vertex / triangleGrid.getWidth();
+                long end = TriangleGrid.getPackedVertexAtEndOfEdge(x, y, edge % 3);
+                vertices.union(vertex, triangleGrid.getVertexIndex(PackedCoordinate.x(end), PackedCoordinate.y(end)));
+            }
+        }
+        verticesStale = false;
+    }
+
+    private void ensureTilesLabelled() {
+        if (!tilesStale)
+            return;
+        tiles.reset();
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                long centre = TriangleCoordinate.getPackedHexagonCentre(x, y);
+                int centreX = PackedCoordinate.x(centre);
+                int centreY = PackedCoordinate.y(centre);
+                for (int direction = 0; direction < 6; direction++) {
+                    long neighbour = CompositeGrid.getPackedAdjacentTile(x, y, direction);
+                    int neighbourX = PackedCoordinate.x(neighbour);
+                    int neighbourY = PackedCoordinate.y(neighbour);
+                    boolean inside = grid.containsHexagonTile(neighbourX, neighbourY);
+                    // directions N, NE and SE visit each pair of tiles inside the grid once
+                    if (inside && direction >= 3)
+                        continue;
+                    if (isClaimed(getBorderEdge(centreX, centreY, direction)))
+                        continue;
+                    tiles.union(y * width + x, inside ? neighbourY * width + neighbourX : outside);
+                }
+            }
+        }
+        tilesStale = false;
+    }
+
+    /**
+     * Gets the edge index of the border a hexagon shares with its neighbour in a direction:
+     * the edge between hexagon vertices {@code direction} and {@code direction + 1}.
+     */
+    private int getBorderEdge(int centreX, int centreY, int direction) {
+        long vertex = TriangleGrid.getPackedVertexAtEndOfEdge(centreX, centreY, direction);
+        return triangleGrid.getEdgeIndexInDirection(PackedCoordinate.x(vertex), PackedCoordinate.y(vertex), (direction + 2) % 6);
+    }
+}
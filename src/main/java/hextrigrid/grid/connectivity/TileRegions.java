@@ -0,0 +1,145 @@
+package hextrigrid.grid.connectivity;
+
+import hextrigrid.grid.PackedCoordinate;
+import hextrigrid.grid.composite.CompositeGrid;
+
+import java.util.Arrays;
+
+/**
+ * Labels territories: connected runs of hexagonal tiles with the same owner.
+ * <p>
+ * Owners are held in an {@code int[]} indexed by {@code y * width + x}. Claiming an unowned tile merges its
+ * territory with the neighbouring territories of the same owner in near-constant time. Taking a tile away from an
+ * owner can split a territory, which a union-find cannot undo, so it schedules a full relabel that runs on the next
+ * query.
+ */
+public class TileRegions {
+    /** Owner of unclaimed tiles */
+    public static final int NO_OWNER = -1;
+
+    private final CompositeGrid grid;
+    private final int width;
+    private final int height;
+    private final int[] owners;
+    private final UnionFind regions;
+    private boolean relabelNeeded;
+
+    public TileRegions(CompositeGrid grid) {
+        this.grid = grid;
+        this.width = grid.getWidth();
+        this.height = grid.getHeight();
+        this.owners = new int[width * height];
+        this.regions = new UnionFind(width * height);
+        Arrays.fill(owners, NO_OWNER);
+    }
+
+    /**
+     * Sets the owner of a tile, merging territories incrementally where possible.
+     *
+     * @param x     The x-coordinate of the tile.
+     * @param y     The y-coordinate of the tile.
+     * @param owner The new owner, or {@link #NO_OWNER}.
+     */
+    public void setOwner(int x, int y, int owner) {
+        int index = y * width + x;
+        int previous = owners[index];
+        if (previous == owner)
+            return;
+        owners[index] = owner;
+
+        if (previous != NO_OWNER) {
+            relabelNeeded = true;
+        } else if (!relabelNeeded) {
+            mergeWithNeighbours(x, y, 0, 6);
+        }
+    }
+
+    public int getOwner(int x, int y) {
+        return owners[y * width + x];
+    }
+
+    /**
+     * Gets the component id of a tile's territory. Tiles share an id exactly when they are in the same territory;
+     * ids stay valid until the next change of ownership.
+     *
+     * @param x The x-coordinate of the tile.
+     * @param y The y-coordinate of the tile.
+     * @return The component id, or -1 for an unowned tile.
+     */
+    public int getComponent(int x, int y) {
+        int index = y * width + x;
+        if (owners[index] == NO_OWNER)
+            return -1;
+        ensureLabelled();
+        return regions.find(index);
+    }
+
+    /**
+     * Gets the number of tiles in a tile's territory.
+     *
+     * @param x The x-coordinate of the tile.
+     * @param y The y-coordinate of the tile.
+     * @return The territory size, or 0 for an unowned tile.
+     */
+    public int getComponentSize(int x, int y) {
+        int index = y * width + x;
+        if (owners[index] == NO_OWNER)
+            return 0;
+        ensureLabelled();
+        return regions.getSize(index);
+    }
+
+    /**
+     * Writes a dense territory label for every tile, indexed by {@code y * width + x}.
+     *
+     * @param out Array of at least width * height entries; unowned tiles receive -1.
+     * @return The number of territories.
+     */
+    public int getLabels(int[] out) {
+        ensureLabelled();
+        // Roots receive consecutive labels in the order they are first met
+        int labels = 0;
+        Arrays.fill(out, 0, owners.length, -1);
+        for (int i = 0; i < owners.length; i++) {
+            if (owners[i] == NO_OWNER)
+                continue;
+            int root = regions.find(i);
+            if (out[root] == -1)
+                out[root] = labels++;
+            out[i] = out[root];
+        }
+        return labels;
+    }
+
+    /**
+     * Rebuilds every territory from the owners.
+     */
+    public void relabel() {
+        regions.reset();
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                if (owners[y * width + x] != NO_OWNER)
+                    // directions N, NE and SE visit each pair of neighbours once
+                    mergeWithNeighbours(x, y, 0, 3);
+            }
+        }
+        relabelNeeded = false;
+    }
+
+    private void ensureLabelled() {
+        if (relabelNeeded)
+            relabel();
+    }
+
+    private void mergeWithNeighbours(int x, int y, int firstDirection, int endDirection) {
+        int index = y * width + x;
+        int owner = owners[index];
+        for (int direction = firstDirection; direction < endDirection; direction++) {
+            long neighbour = CompositeGrid.getPackedAdjacentTile(x, y, direction);
+            int neighbourX = PackedCoordinate.x(neighbour);
+            int neighbourY = PackedCoordinate.y(neighbour);
+            if (grid.containsHexagonTile(neighbourX, neighbourY) && owners[neighbourY * width + neighbourX] == owner)
+                regions.union(index, neighbourY * width + neighbourX);
+        }
+    }
+}
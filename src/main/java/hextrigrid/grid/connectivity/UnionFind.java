@@ -0,0 +1,101 @@
+package hextrigrid.grid.connectivity;
+
+/**
+ * Array-backed disjoint-set forest with union by size and path compression.
+ */
+public class UnionFind {
+    private final int[] parent;
+    private final int[] size;
+    private int components;
+
+    /**
+     * Creates a forest of singleton sets.
+     *
+     * @param count The number of elements.
+     */
+    public UnionFind(int count) {
+        parent = new int[count];
+        size = new int[count];
+        reset();
+    }
+
+    /**
+     * Returns every element to its own singleton set.
+     */
+    public final void reset() {
+        for (int i = 0; i < parent.length; i++) {
+            parent[i] = i;
+            size[i] = 1;
+        }
+        components = parent.length;
+    }
+
+    /**
+     * Finds the representative of an element's set, compressing the path to it.
+     *
+     * @param element The element.
+     * @return The representative element.
+     */
+    public int find(int element) {
+        int root = element;
+        while (parent[root] != root) {
+            root = parent[root];
+        }
+        while (parent[element] != root) {
+            int next = parent[element];
+            parent[element] = root;
+            element = next;
+        }
+        return root;
+    }
+
+    /**
+     * Merges the sets of two elements.
+     *
+     * @param a The first element.
+     * @param b The second element.
+     * @return {@code true} if the elements were in different sets.
+     */
+    public boolean union(int a, int b) {
+        int rootA = find(a);
+        int rootB = find(b);
+        if (rootA == rootB)
+            return false;
+        if (size[rootA] < size[rootB]) {
+            int swap = rootA;
+            rootA = rootB;
+            rootB = swap;
+        }
+        parent[rootB] = rootA;
+        size[rootA] += size[rootB];
+        components--;
+        return true;
+    }
+
+    public boolean connected(int a, int b) {
+        return find(a) == find(b);
+    }
+
+    /**
+     * Gets the number of elements in an element's set.
+     *
+     * @param element The element.
+     * @return The size of the set.
+     */
+    public int getSize(int element) {
+        return size[find(element)];
+    }
+
+    /**
+     * Gets the number of disjoint sets.
+     *
+     * @return The number of sets.
+     */
+    public int getComponentCount() {
+        return components;
+    }
+
+    public int getElementCount() {
+        return parent.length;
+    }
+}
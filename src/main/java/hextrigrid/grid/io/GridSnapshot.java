@@ -0,0 +1,184 @@
+package hextrigrid.grid.io;
+
+import hextrigrid.grid.attribute.AttributeColumn;
+import hextrigrid.grid.attribute.AttributeType;
+import hextrigrid.grid.attribute.BitColumn;
+import hextrigrid.grid.attribute.ByteColumn;
+import hextrigrid.grid.attribute.DoubleColumn;
+import hextrigrid.grid.attribute.ElementKind;
+import hextrigrid.grid.attribute.FloatColumn;
+import hextrigrid.grid.attribute.GridAttributes;
+import hextrigrid.grid.attribute.IntColumn;
+import hextrigrid.grid.attribute.LongColumn;
+import hextrigrid.grid.composite.CompositeGrid;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Versioned binary snapshot format for a {@link CompositeGrid} and its {@link GridAttributes}.
+ * <p>
+ * All values are little-endian. The file starts with a fixed header, followed by a directory with one entry per
+ * attribute column, followed by the raw column data. Every column's data starts on an 8 byte boundary so that it
+ * can be memory-mapped and read in place (see {@link MappedGridSnapshot}).
+ * <pre>
+ * header:    int magic "HTCG", int version, int gridWidth, int gridHeight, int flags, int columnCount
+ * directory: per column: byte kind, byte type, short nameLength, byte[nameLength] name (UTF-8),
+ *            int elementCount, long dataOffset, long dataLength
+ * data:      per column: the values (bit columns as packed longs), padded to 8 bytes
+ * </pre>
+ */
+public final class GridSnapshot {
+    public static final int MAGIC = 0x48544347;
+    public static final int VERSION = 1;
+    /** Flag set when the triangle grid uses compact storage */
+    public static final int FLAG_COMPACT = 1;
+
+    static final int HEADER_SIZE = 24;
+    private static final int WRITE_BUFFER_SIZE = 1 << 16;
+
+    private GridSnapshot() {
+    }
+
+    /**
+     * Writes a grid without attributes.
+     *
+     * @param path The file to write.
+     * @param grid The grid.
+     * @throws IOException If writing fails.
+     */
+    public static void write(Path path, CompositeGrid grid) throws IOException {
+        write(path, grid, null);
+    }
+
+    /**
+     * Writes a grid and every column of its attributes.
+     *
+     * @param path       The file to write.
+     * @param grid       The grid.
+     * @param attributes The attributes, or {@code null}.
+     * @throws IOException If writing fails.
+     */
+    public static void write(Path path, CompositeGrid grid, GridAttributes attributes) throws IOException {
+        List<AttributeColumn> columns = new ArrayList<>();
+        if (attributes != null) {
+            for (ElementKind kind : ElementKind.values()) {
+                columns.addAll(attributes.getColumns(kind));
+            }
+        }
+
+        // Lay out the directory and the data
+        List<byte[]> names = new ArrayList<>();
+        int directorySize = 0;
+        for (AttributeColumn column : columns) {
+            byte[] name = column.getName().getBytes(StandardCharsets.UTF_8);
+            names.add(name);
+            directorySize += 4 + name.length + 4 + 8 + 8;
+        }
+        long[] offsets = new long[columns.size()];
+        long position = align(HEADER_SIZE + directorySize);
+        for (int i = 0; i < columns.size(); i++) {
+            offsets[i] = position;
+            position = align(position + dataLength(columns.get(i)));
+        }
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE + directorySize).order(ByteOrder.LITTLE_ENDIAN);
+        int flags = grid.getTriangleGrid().isCompact() ? FLAG_COMPACT : 0;
+        header.putInt(MAGIC).putInt(VERSION).putInt(grid.getWidth()).putInt(grid.getHeight()).putInt(flags).putInt(columns.size());
+        for (int i = 0; i < columns.size(); i++) {
+            AttributeColumn column = columns.get(i);
+            byte[] name = names.get(i);
+            header.put((byte) column.getKind().ordinal()).put((byte) column.getType().ordinal()).putShort((short) name.length).put(name);
+            header.putInt(column.size()).putLong(offsets[i]).putLong(dataLength(column));
+        }
+        header.flip();
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                                                    StandardOpenOption.TRUNCATE_EXISTING)) {
+            writeFully(channel, header, 0);
+            ByteBuffer buffer = ByteBuffer.allocateDirect(WRITE_BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            for (int i = 0; i < columns.size(); i++) {
+                writeColumn(channel, buffer, columns.get(i), offsets[i]);
+            }
+            // Pad the file so the last column ends on an 8 byte boundary
+            if (channel.size() < position)
+                writeFully(channel, ByteBuffer.allocate((int) (position - channel.size())), channel.size());
+        }
+    }
+
+    /**
+     * Opens a snapshot by memory-mapping it read-only.
+     *
+     * @param path The file to open.
+     * @return The mapped snapshot.
+     * @throws IOException If the file cannot be read or is not a supported snapshot.
+     */
+    public static MappedGridSnapshot open(Path path) throws IOException {
+        return new MappedGridSnapshot(path);
+    }
+
+    static long dataLength(AttributeColumn column) {
+        return (long) elementBytes(column.getType()) * storedLength(column.getType(), column.size());
+    }
+
+    /** Bytes per stored value; bit columns are stored as 64 bit words */
+    static int elementBytes(AttributeType type) {
+        switch (type) {
+            case BYTE:
+                return 1;
+            case INT:
+            case FLOAT:
+                return 4;
+            default:
+                return 8;
+        }
+    }
+
+    /** Number of stored values for a column of the given size */
+    static int storedLength(AttributeType type, int size) {
+        return type == AttributeType.BIT ? (size + 63) >>> 6 : size;
+    }
+
+    static long align(long position) {
+        return (position + 7) & ~7L;
+    }
+
+    private static void writeColumn(FileChannel channel, ByteBuffer buffer, AttributeColumn column, long position) throws IOException {
+        int elementBytes = elementBytes(column.getType());
+        int length = storedLength(column.getType(), column.size());
+        int perBuffer = WRITE_BUFFER_SIZE / elementBytes;
+        for (int start = 0; start < length; start += perBuffer) {
+            int count = Math.min(perBuffer, length - start);
+            buffer.clear();
+            if (column instanceof IntColumn)
+                buffer.asIntBuffer().put(((IntColumn) column).values(), start, count);
+            else if (column instanceof FloatColumn)
+                buffer.asFloatBuffer().put(((FloatColumn) column).values(), start, count);
+            else if (column instanceof LongColumn)
+                buffer.asLongBuffer().put(((LongColumn) column).values(), start, count);
+            else if (column instanceof DoubleColumn)
+                buffer.asDoubleBuffer().put(((DoubleColumn) column).values(), start, count);
+            else if (column instanceof ByteColumn)
+                buffer.put(((ByteColumn) column).values(), start, count);
+            else
+                buffer.asLongBuffer().put(((BitColumn) column).words(), start, count);
+            buffer.position(0).limit(count * elementBytes);
+            position += writeFully(channel, buffer, position);
+        }
+    }
+
+    private static int writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        int written = 0;
+        while (buffer.hasRemaining()) {
+            written += channel.write(buffer, position + written);
+        }
+        return written;
+    }
+}
@@ -0,0 +1,260 @@
+package hextrigrid.grid.io;
+
+import hextrigrid.grid.attribute.AttributeColumn;
+import hextrigrid.grid.attribute.AttributeType;
+import hextrigrid.grid.attribute.BitColumn;
+import hextrigrid.grid.attribute.ByteColumn;
+import hextrigrid.grid.attribute.DoubleColumn;
+import hextrigrid.grid.attribute.ElementKind;
+import hextrigrid.grid.attribute.FloatColumn;
+import hextrigrid.grid.attribute.GridAttributes;
+import hextrigrid.grid.attribute.IntColumn;
+import hextrigrid.grid.attribute.LongColumn;
+import hextrigrid.grid.composite.CompositeGrid;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A grid snapshot opened with {@link GridSnapshot#open}. Only the header and directory are read eagerly; each
+ * column is memory-mapped read-only on first access, so reads are served straight from the page cache and
+ * several processes opening the same file share its pages.
+ * <p>
+ * Typed views returned by this class are read-only and remain valid after {@link #close()}. Use
+ * {@link #loadAttributes} to copy the columns onto the heap when they need to be modified.
+ */
+public class MappedGridSnapshot implements Closeable {
+    private final FileChannel channel;
+    private final int version;
+    private final int width;
+    private final int height;
+    private final int flags;
+    private final List<SnapshotColumn> columns;
+    private final ByteBuffer[] mappings;
+
+    MappedGridSnapshot(Path path) throws IOException {
+        channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            ByteBuffer header = read(0, GridSnapshot.HEADER_SIZE);
+            if (header.getInt() != GridSnapshot.MAGIC)
+                throw new IOException("Not a grid snapshot: " + path);
+            version = header.getInt();
+            if (version < 1)
+                throw new IOException("Corrupt grid snapshot, version " + version + ": " + path);
+            if (version > GridSnapshot.VERSION)
+                throw new IOException("Unsupported grid snapshot version " + version + ": " + path);
+            width = header.getInt();
+            height = header.getInt();
+            flags = header.getInt();
+            int columnCount = header.getInt();
+            if (width < 0 || height < 0 || columnCount < 0)
+                throw new IOException("Corrupt grid snapshot, negative size or column count: " + path);
+
+            List<SnapshotColumn> columns = new ArrayList<>(columnCount);
+            long position = GridSnapshot.HEADER_SIZE;
+            for (int i = 0; i < columnCount; i++) {
+                ByteBuffer entry = read(position, 4);
+                int kindOrdinal = entry.get() & 0xff;
+                int typeOrdinal = entry.get() & 0xff;
+                if (kindOrdinal >= ElementKind.values().length || typeOrdinal >= AttributeType.values().length)
+                    throw new IOException("Corrupt grid snapshot, unknown element kind or type in column " + i + ": " + path);
+                ElementKind kind = ElementKind.values()[kindOrdinal];
+                AttributeType type = AttributeType.values()[typeOrdinal];
+                int nameLength = entry.getShort() & 0xffff;
+                ByteBuffer rest = read(position + 4, nameLength + 20);
+                byte[] name = new byte[nameLength];
+                rest.get(name);
+                int size = rest.getInt();
+                long dataOffset = rest.getLong();
+                long dataLength = rest.getLong();
+                if (size < 0 || dataOffset < 0
+                        || dataLength != (long) GridSnapshot.elementBytes(type) * GridSnapshot.storedLength(type, size))
+                    throw new IOException("Corrupt grid snapshot, bad size or data range in column " + i + ": " + path);
+                if (dataOffset > channel.size() - dataLength)
+                    throw new IOException("Truncated grid snapshot: " + path);
+                columns.add(new SnapshotColumn(new String(name, StandardCharsets.UTF_8), kind, type, size, dataOffset, dataLength));
+                position += 4 + nameLength + 20;
+            }
+            this.columns = Collections.unmodifiableList(columns);
+            this.mappings = new ByteBuffer[columnCount];
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    public int getVersion() {
+        return version;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public boolean isCompact() {
+        return (flags & GridSnapshot.FLAG_COMPACT) != 0;
+    }
+
+    /**
+     * Creates a grid with the stored dimensions and storage mode.
+     *
+     * @return A new grid.
+     */
+    public CompositeGrid createGrid() {
+        return new CompositeGrid(width, height, isCompact());
+    }
+
+    public List<SnapshotColumn> getColumns() {
+        return columns;
+    }
+
+    /**
+     * Finds a column's directory entry.
+     *
+     * @param kind The element kind.
+     * @param name The column name.
+     * @return The entry, or {@code null} if there is no such column.
+     */
+    public SnapshotColumn getColumn(ElementKind kind, String name) {
+        for (SnapshotColumn column : columns) {
+            if (column.getKind() == kind && column.getName().equals(name))
+                return column;
+        }
+        return null;
+    }
+
+    public IntBuffer getIntColumn(ElementKind kind, String name) throws IOException {
+        return map(kind, name, AttributeType.INT).asIntBuffer();
+    }
+
+    public LongBuffer getLongColumn(ElementKind kind, String name) throws IOException {
+        return map(kind, name, AttributeType.LONG).asLongBuffer();
+    }
+
+    public FloatBuffer getFloatColumn(ElementKind kind, String name) throws IOException {
+        return map(kind, name, AttributeType.FLOAT).asFloatBuffer();
+    }
+
+    public DoubleBuffer getDoubleColumn(ElementKind kind, String name) throws IOException {
+        return map(kind, name, AttributeType.DOUBLE).asDoubleBuffer();
+    }
+
+    public ByteBuffer getByteColumn(ElementKind kind, String name) throws IOException {
+        return map(kind, name, AttributeType.BYTE);
+    }
+
+    /**
+     * Returns a bit column as its packed words; bit {@code i} is bit {@code i % 64} of word {@code i / 64}.
+     */
+    public LongBuffer getBitColumn(ElementKind kind, String name) throws IOException {
+        return map(kind, name, AttributeType.BIT).asLongBuffer();
+    }
+
+    /**
+     * Copies every stored column onto the heap.
+     *
+     * @param grid The grid the attributes belong to; must have the stored dimensions.
+     * @return The loaded attributes.
+     * @throws IOException If a column cannot be read.
+     */
+    public GridAttributes loadAttributes(CompositeGrid grid) throws IOException {
+        if (grid.getWidth() != width || grid.getHeight() != height)
+            throw new IllegalArgumentException("Grid is " + grid.getWidth() + "x" + grid.getHeight()
+                                               + ", snapshot is " + width + "x" + height);
+        GridAttributes attributes = new GridAttributes(grid);
+        for (SnapshotColumn column : columns) {
+            ElementKind kind = column.getKind();
+            String name = column.getName();
+            AttributeColumn loaded;
+            switch (column.getType()) {
+                case INT:
+                    IntColumn ints = new IntColumn(name, kind, column.size());
+                    getIntColumn(kind, name).get(ints.values());
+                    loaded = ints;
+                    break;
+                case LONG:
+                    LongColumn longs = new LongColumn(name, kind, column.size());
+                    getLongColumn(kind, name).get(longs.values());
+                    loaded = longs;
+                    break;
+                case FLOAT:
+                    FloatColumn floats = new FloatColumn(name, kind, column.size());
+                    getFloatColumn(kind, name).get(floats.values());
+                    loaded = floats;
+                    break;
+                case DOUBLE:
+                    DoubleColumn doubles = new DoubleColumn(name, kind, column.size());
+                    getDoubleColumn(kind, name).get(doubles.values());
+                    loaded = doubles;
+                    break;
+                case BYTE:
+                    ByteColumn bytes = new ByteColumn(name, kind, column.size());
+                    getByteColumn(kind, name).get(bytes.values());
+                    loaded = bytes;
+                    break;
+                default:
+                    BitColumn bits = new BitColumn(name, kind, column.size());
+                    getBitColumn(kind, name).get(bits.words());
+                    loaded = bits;
+                    break;
+            }
+            attributes.add(loaded);
+        }
+        return attributes;
+    }
+
+    /**
+     * Closes the file. Mappings already handed out stay valid until they are garbage collected.
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private int indexOf(ElementKind kind, String name) {
+        int index = columns.indexOf(getColumn(kind, name));
+        if (index < 0)
+            throw new IllegalArgumentException("No " + kind + " column named " + name);
+        return index;
+    }
+
+    private ByteBuffer map(ElementKind kind, String name, AttributeType type) throws IOException {
+        int index = indexOf(kind, name);
+        SnapshotColumn column = columns.get(index);
+        if (column.getType() != type)
+            throw new IllegalArgumentException("Column " + name + " is " + column.getType() + ", not " + type);
+        synchronized (mappings) {
+            if (mappings[index] == null) {
+                mappings[index] = channel.map(FileChannel.MapMode.READ_ONLY, column.dataOffset, column.dataLength)
+                                         .order(ByteOrder.LITTLE_ENDIAN);
+            }
+            return mappings[index].duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        }
+    }
+
+    private ByteBuffer read(long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0)
+                throw new IOException("Truncated grid snapshot");
+        }
+        return buffer.flip();
+    }
+}
@@ -0,0 +1,49 @@
+package hextrigrid.grid.io;
+
+import hextrigrid.grid.attribute.AttributeType;
+import hextrigrid.grid.attribute.ElementKind;
+
+/**
+ * Directory entry of an attribute column stored in a grid snapshot.
+ */
+public final class SnapshotColumn {
+    private final String name;
+    private final ElementKind kind;
+    private final AttributeType type;
+    private final int size;
+    final long dataOffset;
+    final long dataLength;
+
+    SnapshotColumn(String name, ElementKind kind, AttributeType type, int size, long dataOffset, long dataLength) {
+        this.name = name;
+        this.kind = kind;
+        this.type = type;
+        this.size = size;
+        this.dataOffset = dataOffset;
+        this.dataLength = dataLength;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public ElementKind getKind() {
+        return kind;
+    }
+
+    public AttributeType getType() {
+        return type;
+    }
+
+    /**
+     * @return The number of elements in the column.
+     */
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public String toString() {
+        return kind + " " + type + " " + name + "[" + size + "]";
+    }
+}
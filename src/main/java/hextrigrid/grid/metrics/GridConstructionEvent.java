@@ -0,0 +1,28 @@
+package hextrigrid.grid.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight Recorder event for the construction of a grid. The duration covers building its storage.
+ */
+@Name("hextrigrid.GridConstruction")
+@Label("Grid Construction")
+@Category("HexTriGrid")
+@Description("Construction of a triangle or composite grid")
+public class GridConstructionEvent extends Event {
+    @Label("Grid Type")
+    public String gridType;
+
+    @Label("Width")
+    public int width;
+
+    @Label("Height")
+    public int height;
+
+    @Label("Compact")
+    public boolean compact;
+}
@@ -0,0 +1,25 @@
+package hextrigrid.grid.metrics;
+
+/**
+ * Counters maintained by {@link GridMetrics} while it is enabled.
+ */
+public enum GridCounter {
+    /** Calls to {@link hextrigrid.grid.composite.CompositeGrid#getHexagonTile}. */
+    TILE_QUERIES,
+    /** Tiles created on first access. */
+    TILE_CREATIONS,
+    /** Node, vertex, edge and face views created by a compact {@link hextrigrid.grid.triangle.TriangleGrid}. */
+    VIEW_ALLOCATIONS,
+    /** Adjacent tile queries answered with packed coordinates into a caller supplied buffer. */
+    PACKED_ADJACENT_TILE_QUERIES,
+    /** Adjacent tile queries answered with a newly allocated array of tiles. */
+    ALLOCATING_ADJACENT_TILE_QUERIES,
+    /** Field of view results served from the cache. */
+    FIELD_OF_VIEW_CACHE_HITS,
+    /** Field of view results computed because they were not cached. */
+    FIELD_OF_VIEW_CACHE_MISSES,
+    /** Raster image tiles drawn without re-rendering. */
+    RASTER_CACHE_HITS,
+    /** Raster image tiles rendered because they were missing or dirty. */
+    RASTER_CACHE_MISSES
+}
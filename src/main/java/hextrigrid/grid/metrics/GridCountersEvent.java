@@ -0,0 +1,36 @@
+package hextrigrid.grid.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Period;
+
+/**
+ * Periodic Flight Recorder event carrying the {@link GridMetrics} counters.
+ */
+@Name("hextrigrid.GridCounters")
+@Label("Grid Counters")
+@Category("HexTriGrid")
+@Description("Grid query and cache counters since the last reset")
+@Period("1 s")
+public class GridCountersEvent extends Event {
+    @Label("Tile Queries")
+    long tileQueries;
+
+    @Label("Tile Creations")
+    long tileCreations;
+
+    @Label("View Allocations")
+    long viewAllocations;
+
+    @Label("Allocation-Free Ratio")
+    double allocationFreeRatio;
+
+    @Label("Field Of View Cache Hit Ratio")
+    double fieldOfViewCacheHitRatio;
+
+    @Label("Raster Cache Hit Ratio")
+    double rasterCacheHitRatio;
+}
@@ -0,0 +1,153 @@
+package hextrigrid.grid.metrics;
+
+import jdk.jfr.FlightRecorder;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Process-wide counters for grid queries and caches.
+ * <p>
+ * Counting is off by default and is switched on with {@link #setEnabled} or the system property
+ * {@code hextrigrid.metrics=true}. While disabled, an instrumented call site costs a single field read. Counters
+ * are {@link LongAdder}s, so concurrent increments from rendering and query threads do not contend.
+ * <p>
+ * The counters can be polled with {@link #get} and {@link #snapshot}, or exported to JDK Flight Recorder as the
+ * periodic {@link GridCountersEvent}. The event is registered the first time counting is enabled, or explicitly with
+ * {@link #registerFlightRecorderExport}, so that nothing is registered while counting stays off.
+ */
+public final class GridMetrics {
+    private static final GridCounter[] COUNTERS = GridCounter.values();
+    private static final LongAdder[] VALUES = new LongAdder[COUNTERS.length];
+    private static volatile boolean enabled;
+    private static boolean exportRegistered;
+
+    static {
+        for (int i = 0; i < VALUES.length; i++) {
+            VALUES[i] = new LongAdder();
+        }
+        if (Boolean.getBoolean("hextrigrid.metrics"))
+            setEnabled(true);
+    }
+
+    private GridMetrics() {
+    }
+
+    /**
+     * Checks whether counters are being updated.
+     *
+     * @return true if counting is enabled.
+     */
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Switches counting on or off. Counter values are kept when counting is switched off.
+     *
+     * @param enabled true to update counters.
+     */
+    public static void setEnabled(boolean enabled) {
+        if (enabled)
+            registerFlightRecorderExport();
+        GridMetrics.enabled = enabled;
+    }
+
+    /**
+     * Registers the periodic {@link GridCountersEvent} with JDK Flight Recorder. Later calls have no effect.
+     */
+    public static synchronized void registerFlightRecorderExport() {
+        if (exportRegistered)
+            return;
+        FlightRecorder.addPeriodicEvent(GridCountersEvent.class, GridMetrics::emitCounters);
+        exportRegistered = true;
+    }
+
+    /**
+     * Increments a counter if counting is enabled.
+     *
+     * @param counter The counter.
+     */
+    public static void increment(GridCounter counter) {
+        if (enabled)
+            VALUES[counter.ordinal()].increment();
+    }
+
+    /**
+     * Adds to a counter if counting is enabled.
+     *
+     * @param counter The counter.
+     * @param delta   The amount to add.
+     */
+    public static void add(GridCounter counter, long delta) {
+        if (enabled)
+            VALUES[counter.ordinal()].add(delta);
+    }
+
+    /**
+     * Gets the current value of a counter.
+     *
+     * @param counter The counter.
+     * @return The number of events counted since the last reset.
+     */
+    public static long get(GridCounter counter) {
+        return VALUES[counter.ordinal()].sum();
+    }
+
+    /**
+     * Computes the fraction of hits among hits and misses, e.g.
+     * {@code getRatio(FIELD_OF_VIEW_CACHE_HITS, FIELD_OF_VIEW_CACHE_MISSES)}.
+     *
+     * @param hits   The counter of hits.
+     * @param misses The counter of misses.
+     * @return The hit ratio between 0 and 1, or NaN if neither counter has been incremented.
+     */
+    public static double getRatio(GridCounter hits, GridCounter misses) {
+        long hitCount = get(hits);
+        long total = hitCount + get(misses);
+        return total == 0 ? Double.NaN : (double) hitCount / total;
+    }
+
+    /**
+     * Gets the fraction of adjacent tile queries that used the allocation-free packed path.
+     *
+     * @return The ratio between 0 and 1, or NaN if no query was counted.
+     */
+    public static double getAllocationFreeRatio() {
+        return getRatio(GridCounter.PACKED_ADJACENT_TILE_QUERIES, GridCounter.ALLOCATING_ADJACENT_TILE_QUERIES);
+    }
+
+    /**
+     * Copies every counter value, e.g. for export to a monitoring system.
+     *
+     * @return The counter values, in declaration order.
+     */
+    public static Map<GridCounter, Long> snapshot() {
+        Map<GridCounter, Long> values = new EnumMap<>(GridCounter.class);
+        for (GridCounter counter : COUNTERS) {
+            values.put(counter, get(counter));
+        }
+        return values;
+    }
+
+    /**
+     * Sets every counter back to zero.
+     */
+    public static void reset() {
+        for (LongAdder value : VALUES) {
+            value.reset();
+        }
+    }
+
+    private static void emitCounters() {
+        GridCountersEvent event = new GridCountersEvent();
+        event.tileQueries = get(GridCounter.TILE_QUERIES);
+        event.tileCreations = get(GridCounter.TILE_CREATIONS);
+        event.viewAllocations = get(GridCounter.VIEW_ALLOCATIONS);
+        event.allocationFreeRatio = getAllocationFreeRatio();
+        event.fieldOfViewCacheHitRatio = getRatio(GridCounter.FIELD_OF_VIEW_CACHE_HITS, GridCounter.FIELD_OF_VIEW_CACHE_MISSES);
+        event.rasterCacheHitRatio = getRatio(GridCounter.RASTER_CACHE_HITS, GridCounter.RASTER_CACHE_MISSES);
+        event.commit();
+    }
+}
@@ -0,0 +1,37 @@
+package hextrigrid.grid.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight Recorder event for one pass (faces, edges, vertices or summary) of drawing a grid.
+ * <p>
+ * Visited counts the triangle nodes inside the visible range, drawn counts the elements handed to a draw hook or
+ * batch, and culled counts the nodes of the grid outside the visible range.
+ */
+@Name("hextrigrid.RenderPass")
+@Label("Render Pass")
+@Category("HexTriGrid")
+@Description("One pass of drawing a grid")
+public class RenderPassEvent extends Event {
+    @Label("Method")
+    public String method;
+
+    @Label("Pass")
+    public String pass;
+
+    @Label("Detail Level")
+    public String detailLevel;
+
+    @Label("Visited")
+    public long visited;
+
+    @Label("Drawn")
+    public long drawn;
+
+    @Label("Culled")
+    public long culled;
+}
@@ -0,0 +1,395 @@
+package hextrigrid.grid.offheap;
+
+import hextrigrid.grid.Edge;
+import hextrigrid.grid.Vertex;
+import hextrigrid.grid.change.GridChangeLog;
+import hextrigrid.grid.composite.CompositeGrid;
+import hextrigrid.grid.triangle.EdgeView;
+import hextrigrid.grid.triangle.TriangleCoordinate;
+import hextrigrid.grid.triangle.TriangleFace;
+import hextrigrid.grid.triangle.TriangleFaceView;
+import hextrigrid.grid.triangle.TriangleGrid;
+import hextrigrid.grid.triangle.TriangleGridNode;
+import hextrigrid.grid.triangle.VertexView;
+
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A composite grid whose per-element state lives outside the Java heap.
+ * <p>
+ * The grid has the same layout as a {@link CompositeGrid} of the same size and offers the same coordinate based
+ * accessors as {@link TriangleGrid} and {@link CompositeGrid}; like a compact grid it holds no element objects and
+ * computes border existence from the coordinates. Each vertex, edge, face and tile has one {@code int} of state,
+ * stored in a single {@link MemorySegment} laid out as
+ * <pre>
+ * vertices: int[vertexCount], edges: int[edgeCount], faces: int[faceCount], tiles: int[tileCount]
+ * </pre>
+ * using the dense indices of {@link TriangleGrid} and {@link CompositeGrid}, widened to {@code long} so that grids
+ * beyond 2<sup>31</sup> elements can be addressed. The garbage collector never scans the state, and it is freed
+ * deterministically when the owning {@link Arena} is closed.
+ * <p>
+ * With a {@link GridChangeLog} attached, the state setters record each write and {@link #clear()} records that
+ * everything changed. Writes through the segment views are not recorded.
+ */
+public class OffHeapGrid implements AutoCloseable {
+    private final int gridWidth;
+    private final int gridHeight;
+    private final int triangleWidth;
+    private final int triangleHeight;
+    private final Arena arena;
+    private final boolean ownsArena;
+    private final MemorySegment segment;
+    private final long edgeOffset;
+    private final long faceOffset;
+    private final long tileOffset;
+    private volatile GridChangeLog changeLog;
+
+    private OffHeapGrid(int gridWidth, int gridHeight, Arena arena, boolean ownsArena, MemorySegment segment) {
+        this.gridWidth = gridWidth;
+        this.gridHeight = gridHeight;
+        this.triangleWidth = CompositeGrid.getTriangleGridWidth(gridWidth);
+        this.triangleHeight = CompositeGrid.getTriangleGridHeight(gridHeight);
+        this.arena = arena;
+        this.ownsArena = ownsArena;
+        this.segment = segment;
+        long vertexCount = (long) triangleWidth * triangleHeight;
+        this.edgeOffset = vertexCount * Integer.BYTES;
+        this.faceOffset = edgeOffset + vertexCount * 3 * Integer.BYTES;
+        this.tileOffset = faceOffset + vertexCount * 2 * Integer.BYTES;
+    }
+
+    /**
+     * Allocates a zeroed grid in a new shared arena that is freed by {@link #close()}.
+     *
+     * @param gridWidth  The number of hexagonal columns in the grid.
+     * @param gridHeight The number of hexagonal rows in the grid.
+     * @return The grid.
+     */
+    public static OffHeapGrid allocate(int gridWidth, int gridHeight) {
+        Arena arena = Arena.ofShared();
+        try {
+            return new OffHeapGrid(gridWidth, gridHeight, arena, true,
+                                   arena.allocate(getByteSize(gridWidth, gridHeight), Long.BYTES));
+        } catch (RuntimeException | Error e) {
+            arena.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Allocates a zeroed grid in a caller supplied arena. The state is freed when that arena is closed;
+     * {@link #close()} does nothing.
+     *
+     * @param gridWidth  The number of hexagonal columns in the grid.
+     * @param gridHeight The number of hexagonal rows in the grid.
+     * @param arena      The arena to allocate from.
+     * @return The grid.
+     */
+    public static OffHeapGrid allocate(int gridWidth, int gridHeight, Arena arena) {
+        return new OffHeapGrid(gridWidth, gridHeight, arena, false,
+                               arena.allocate(getByteSize(gridWidth, gridHeight), Long.BYTES));
+    }
+
+    /**
+     * Maps a grid's state from a file, creating or extending the file as needed. Changes are written back to the
+     * file; the mapping is released by {@link #close()}.
+     *
+     * @param path       The file holding the state.
+     * @param gridWidth  The number of hexagonal columns in the grid.
+     * @param gridHeight The number of hexagonal rows in the grid.
+     * @return The grid.
+     * @throws IOException If the file cannot be mapped.
+     */
+    public static OffHeapGrid map(Path path, int gridWidth, int gridHeight) throws IOException {
+        Arena arena = Arena.ofShared();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                                                    StandardOpenOption.WRITE)) {
+            MemorySegment segment = channel.map(FileChannel.MapMode.READ_WRITE, 0,
+                                                getByteSize(gridWidth, gridHeight), arena);
+            return new OffHeapGrid(gridWidth, gridHeight, arena, true, segment);
+        } catch (IOException | RuntimeException | Error e) {
+            arena.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Gets the number of bytes of state held by a grid of the given size.
+     *
+     * @param gridWidth  The number of hexagonal columns in the grid.
+     * @param gridHeight The number of hexagonal rows in the grid.
+     * @return The size of the state segment in bytes.
+     */
+    public static long getByteSize(int gridWidth, int gridHeight) {
+        long vertexCount = (long) CompositeGrid.getTriangleGridWidth(gridWidth) * CompositeGrid.getTriangleGridHeight(gridHeight);
+        return (vertexCount * 6 + (long) gridWidth * gridHeight) * Integer.BYTES;
+    }
+
+    /**
+     * Gets the number of hexagonal columns in the grid.
+     *
+     * @return The width of the grid.
+     */
+    public int getWidth() {
+        return gridWidth;
+    }
+
+    /**
+     * Gets the number of hexagonal rows in the grid.
+     *
+     * @return The height of the grid.
+     */
+    public int getHeight() {
+        return gridHeight;
+    }
+
+    /**
+     * Gets the width of the underlying triangle grid (number of nodes in the horizontal direction).
+     *
+     * @return The triangle grid width.
+     */
+    public int getTriangleWidth() {
+        return triangleWidth;
+    }
+
+    /**
+     * Gets the height of the underlying triangle grid (number of nodes in the vertical direction).
+     *
+     * @return The triangle grid height.
+     */
+    public int getTriangleHeight() {
+        return triangleHeight;
+    }
+
+    // Existence, delegating to the border trimming rules of TriangleGrid
+
+    /** @see CompositeGrid#isHexagonCentre */
+    public boolean isHexagonCentre(int x, int y) {
+        return TriangleCoordinate.isHexagonCentre(x, y);
+    }
+
+    /** @see CompositeGrid#containsHexagonTile */
+    public boolean containsHexagonTile(int x, int y) {
+        return y >= 0 && y < gridHeight && x >= 0 && x < gridWidth;
+    }
+
+    /** @see TriangleGrid#vertexExists */
+    public boolean vertexExists(int x, int y) {
+        return TriangleGrid.vertexExists(x, y, triangleWidth, triangleHeight);
+    }
+
+    /** @see TriangleGrid#edgeExists */
+    public boolean edgeExists(int x, int y, int edgeIndex) {
+        return TriangleGrid.edgeExists(x, y, edgeIndex, triangleWidth, triangleHeight);
+    }
+
+    /** @see TriangleGrid#faceExists */
+    public boolean faceExists(int x, int y, boolean pointing) {
+        return TriangleGrid.faceExists(x, y, pointing, triangleWidth, triangleHeight);
+    }
+
+    // View objects, created on each call as in a compact TriangleGrid
+
+    /**
+     * Builds a trimmed view of the node at the specified (x, y) position.
+     *
+     * @param x The x-coordinate of the node.
+     * @param y The y-coordinate of the node.
+     * @return A new node, or {@code null} if out of bounds.
+     */
+    public TriangleGridNode getNode(int x, int y) {
+        if (!vertexExists(x, y))
+            return null;
+        TriangleGridNode node = new TriangleGridNode(x, y);
+        for (int edgeIndex = 0; edgeIndex < 3; edgeIndex++) {
+            if (!edgeExists(x, y, edgeIndex))
+                node.edges[edgeIndex] = null;
+        }
+        if (!faceExists(x, y, TriangleFace.POINTY_UP))
+            node.faceUp = null;
+        if (!faceExists(x, y, TriangleFace.POINTY_DOWN))
+            node.faceDown = null;
+        return node;
+    }
+
+    /** @see TriangleGrid#getVertex */
+    public Vertex getVertex(int x, int y) {
+        return vertexExists(x, y) ? new VertexView(x, y) : null;
+    }
+
+    /** @see TriangleGrid#getEdge */
+    public Edge getEdge(int x, int y, int edgeIndex) {
+        return vertexExists(x, y) && edgeExists(x, y, edgeIndex) ? new EdgeView(x, y, edgeIndex) : null;
+    }
+
+    /** @see TriangleGrid#getFace */
+    public TriangleFace getFace(int x, int y, boolean pointing) {
+        return vertexExists(x, y) && faceExists(x, y, pointing) ? new TriangleFaceView(x, y, pointing) : null;
+    }
+
+    /**
+     * Allocation-free equivalent of {@link CompositeGrid#getAdjacentTilesOfEdge(int, int, int, long[])}.
+     */
+    public int getAdjacentTilesOfEdge(int x, int y, int edgeIndex, long[] out) {
+        return CompositeGrid.getPackedAdjacentTilesOfEdge(x, y, edgeIndex, out);
+    }
+
+    // Dense indices, as in TriangleGrid and CompositeGrid but wide enough for very large grids
+
+    /** @see TriangleGrid#getVertexIndex */
+    public long getVertexIndex(int x, int y) {
+        return (long) y * triangleWidth + x;
+    }
+
+    /** @see TriangleGrid#getEdgeIndex */
+    public long getEdgeIndex(int x, int y, int edgeIndex) {
+        return getVertexIndex(x, y) * 3 + edgeIndex;
+    }
+
+    /** @see TriangleGrid#getFaceIndex */
+    public long getFaceIndex(int x, int y, boolean pointing) {
+        return getVertexIndex(x, y) * 2 + (pointing == TriangleFace.POINTY_UP ? 0 : 1);
+    }
+
+    /** @see CompositeGrid#getTileIndex */
+    public long getTileIndex(int x, int y) {
+        return (long) y * gridWidth + x;
+    }
+
+    public long getVertexCount() {
+        return (long) triangleWidth * triangleHeight;
+    }
+
+    public long getEdgeCount() {
+        return getVertexCount() * 3;
+    }
+
+    public long getFaceCount() {
+        return getVertexCount() * 2;
+    }
+
+    public long getTileCount() {
+        return (long) gridWidth * gridHeight;
+    }
+
+    // State
+
+    public GridChangeLog getChangeLog() {
+        return changeLog;
+    }
+
+    /**
+     * Attaches a change log that state writes are recorded into, e.g. the log of a {@link CompositeGrid} of the
+     * same size.
+     *
+     * @param changeLog The log, or {@code null} to stop recording.
+     */
+    public void setChangeLog(GridChangeLog changeLog) {
+        this.changeLog = changeLog;
+    }
+
+    public int getVertexState(int x, int y) {
+        return segment.get(ValueLayout.JAVA_INT, getVertexIndex(x, y) * Integer.BYTES);
+    }
+
+    public void setVertexState(int x, int y, int state) {
+        segment.set(ValueLayout.JAVA_INT, getVertexIndex(x, y) * Integer.BYTES, state);
+        GridChangeLog log = changeLog;
+        if (log != null)
+            log.vertexChanged(x, y);
+    }
+
+    public int getEdgeState(int x, int y, int edgeIndex) {
+        return segment.get(ValueLayout.JAVA_INT, edgeOffset + getEdgeIndex(x, y, edgeIndex) * Integer.BYTES);
+    }
+
+    public void setEdgeState(int x, int y, int edgeIndex, int state) {
+        segment.set(ValueLayout.JAVA_INT, edgeOffset + getEdgeIndex(x, y, edgeIndex) * Integer.BYTES, state);
+        GridChangeLog log = changeLog;
+        if (log != null)
+            log.edgeChanged(x, y, edgeIndex);
+    }
+
+    public int getFaceState(int x, int y, boolean pointing) {
+        return segment.get(ValueLayout.JAVA_INT, faceOffset + getFaceIndex(x, y, pointing) * Integer.BYTES);
+    }
+
+    public void setFaceState(int x, int y, boolean pointing, int state) {
+        segment.set(ValueLayout.JAVA_INT, faceOffset + getFaceIndex(x, y, pointing) * Integer.BYTES, state);
+        GridChangeLog log = changeLog;
+        if (log != null)
+            log.faceChanged(x, y, pointing);
+    }
+
+    public int getTileState(int x, int y) {
+        return segment.get(ValueLayout.JAVA_INT, tileOffset + getTileIndex(x, y) * Integer.BYTES);
+    }
+
+    public void setTileState(int x, int y, int state) {
+        segment.set(ValueLayout.JAVA_INT, tileOffset + getTileIndex(x, y) * Integer.BYTES, state);
+        GridChangeLog log = changeLog;
+        if (log != null)
+            log.tileChanged(x, y);
+    }
+
+    /**
+     * @return The vertex states, one {@code int} per vertex index.
+     */
+    public MemorySegment getVertexSegment() {
+        return segment.asSlice(0, edgeOffset);
+    }
+
+    /**
+     * @return The edge states, one {@code int} per edge index.
+     */
+    public MemorySegment getEdgeSegment() {
+        return segment.asSlice(edgeOffset, faceOffset - edgeOffset);
+    }
+
+    /**
+     * @return The face states, one {@code int} per face index.
+     */
+    public MemorySegment getFaceSegment() {
+        return segment.asSlice(faceOffset, tileOffset - faceOffset);
+    }
+
+    /**
+     * @return The tile states, one {@code int} per tile index.
+     */
+    public MemorySegment getTileSegment() {
+        return segment.asSlice(tileOffset, segment.byteSize() - tileOffset);
+    }
+
+    /**
+     * Sets every state to zero.
+     */
+    public void clear() {
+        segment.fill((byte) 0);
+        GridChangeLog log = changeLog;
+        if (log != null)
+            log.allChanged();
+    }
+
+    /**
+     * Writes modified state back to the file for a grid created by {@link #map}; does nothing otherwise.
+     */
+    public void force() {
+        if (segment.isMapped())
+            segment.force();
+    }
+
+    /**
+     * Frees the state if this grid owns its arena. The grid must not be used afterwards.
+     */
+    @Override
+    public void close() {
+        if (ownsArena)
+            arena.close();
+    }
+}
@@ -0,0 +1,376 @@
+package hextrigrid.grid.pathfinding;
+
+import hextrigrid.grid.PackedCoordinate;
+import hextrigrid.grid.composite.CompositeGrid;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Multi-source distance field (a "Dijkstra map") over a {@link GridGraph}: for every coordinate, the cost of the
+ * cheapest path from the nearest seed.
+ * <p>
+ * The field is held in a primitive {@code int[]} indexed by the graph's dense indices, together with the
+ * predecessor of each coordinate on its cheapest path. The predecessors make incremental updates possible: adding
+ * a seed only propagates the decrease, while removing a seed or changing costs around a coordinate invalidates just
+ * the coordinates whose cheapest path ran through it and repairs them from the surrounding valid field.
+ * <p>
+ * Very large fields can be computed with {@link #computeParallel}, which relaxes horizontal bands of the graph
+ * concurrently until the field stops changing.
+ * <p>
+ * A DistanceField is not thread-safe; the step cost and passability functions must be thread-safe when the parallel
+ * mode is used.
+ */
+public class DistanceField {
+    /** Distance of coordinates that no seed can reach */
+    public static final int UNREACHABLE = Integer.MAX_VALUE;
+
+    private final GridGraph graph;
+    private final StepCost stepCost;
+    private final Passability passability;
+    private final int[] distance;
+    /** Index of the predecessor on the cheapest path, -1 for seeds and unreachable coordinates */
+    private final int[] parent;
+    private final boolean[] seed;
+    /** Coordinates invalidated by the current update, where {@code affected[i] == stamp} */
+    private final int[] affected;
+    private final int[] queue;
+    private final LongHeap heap;
+    private final int[] neighbourX = new int[GridGraph.MAXIMUM_NEIGHBOURS];
+    private final int[] neighbourY = new int[GridGraph.MAXIMUM_NEIGHBOURS];
+    private int stamp;
+
+    /**
+     * Constructs an empty field (every coordinate unreachable).
+     *
+     * @param graph       The graph the field covers.
+     * @param stepCost    The non-negative cost of each step.
+     * @param passability Which coordinates may be entered; seeds are always part of the field.
+     */
+    public DistanceField(GridGraph graph, StepCost stepCost, Passability passability) {
+        this.graph = graph;
+        this.stepCost = stepCost;
+        this.passability = passability;
+        int size = graph.size();
+        this.distance = new int[size];
+        this.parent = new int[size];
+        this.seed = new boolean[size];
+        this.affected = new int[size];
+        this.queue = new int[size];
+        this.heap = new LongHeap(size);
+        Arrays.fill(distance, UNREACHABLE);
+        Arrays.fill(parent, -1);
+    }
+
+    /**
+     * Creates a field over the hexagonal tiles of a grid.
+     */
+    public static DistanceField forTiles(CompositeGrid grid, StepCost stepCost, Passability passability) {
+        return new DistanceField(new TileGraph(grid), stepCost, passability);
+    }
+
+    /**
+     * Creates a field over the triangle vertices of a grid, travelling along edges.
+     */
+    public static DistanceField forVertices(CompositeGrid grid, StepCost stepCost, Passability passability) {
+        return new DistanceField(new VertexGraph(grid.getTriangleGrid()), stepCost, passability);
+    }
+
+    /**
+     * Replaces the seeds and recomputes the whole field with a multi-source Dijkstra search.
+     *
+     * @param seeds Packed coordinates of the seeds.
+     * @param count The number of seeds to read from the array.
+     */
+    public void compute(long[] seeds, int count) {
+        resetSeeds(seeds, count);
+        heap.clear();
+        for (int i = 0; i < distance.length; i++) {
+            if (seed[i])
+                heap.push(LongHeap.entry(0, i));
+        }
+        propagate();
+    }
+
+    /**
+     * Replaces the seeds and recomputes the whole field by relaxing horizontal bands in parallel.
+     * Each round relaxes every band forwards and backwards; rounds repeat until no distance changes.
+     *
+     * @param seeds      Packed coordinates of the seeds.
+     * @param count      The number of seeds to read from the array.
+     * @param pool       The pool bands are relaxed on.
+     * @param bandHeight The number of rows per band.
+     */
+    public void computeParallel(long[] seeds, int count, ForkJoinPool pool, int bandHeight) {
+        resetSeeds(seeds, count);
+        int bands = (graph.getHeight() + bandHeight - 1) / bandHeight;
+        if (bands == 0)
+            return;
+        // Each band only writes its own rows; reads of neighbouring rows may be stale, which only delays convergence
+        while (pool.invoke(new RelaxTask(0, bands, bandHeight))) {
+            // repeat until a round changes nothing
+        }
+    }
+
+    /**
+     * Adds a seed and propagates the decrease in distance.
+     *
+     * @param x The x-coordinate of the seed.
+     * @param y The y-coordinate of the seed.
+     */
+    public void addSeed(int x, int y) {
+        int index = graph.index(x, y);
+        seed[index] = true;
+        if (distance[index] == 0 && parent[index] == -1)
+            return;
+        distance[index] = 0;
+        parent[index] = -1;
+        heap.clear();
+        heap.push(LongHeap.entry(0, index));
+        propagate();
+    }
+
+    /**
+     * Removes a seed and repairs the coordinates that were closest to it.
+     *
+     * @param x The x-coordinate of the seed.
+     * @param y The y-coordinate of the seed.
+     */
+    public void removeSeed(int x, int y) {
+        int index = graph.index(x, y);
+        if (!seed[index])
+            return;
+        seed[index] = false;
+        repair(index);
+    }
+
+    /**
+     * Repairs the field after the passability of a coordinate or the cost of any step into or out of it changed.
+     *
+     * @param x The x-coordinate.
+     * @param y The y-coordinate.
+     */
+    public void updateCosts(int x, int y) {
+        repair(graph.index(x, y));
+    }
+
+    /**
+     * Gets the distance of a coordinate from the nearest seed.
+     *
+     * @param x The x-coordinate.
+     * @param y The y-coordinate.
+     * @return The distance, or {@link #UNREACHABLE}.
+     */
+    public int getDistance(int x, int y) {
+        return distance[graph.index(x, y)];
+    }
+
+    /**
+     * Gets the predecessor of a coordinate on its cheapest path from a seed.
+     * Following predecessors from any coordinate descends the field to the nearest seed.
+     *
+     * @param x The x-coordinate.
+     * @param y The y-coordinate.
+     * @return The packed coordinate of the predecessor, or -1 for seeds and unreachable coordinates.
+     */
+    public long getParent(int x, int y) {
+        int index = parent[graph.index(x, y)];
+        return index == -1 ? -1 : PackedCoordinate.pack(graph.getX(index), graph.getY(index));
+    }
+
+    /**
+     * Returns the field itself, indexed by {@link GridGraph#index}. The array is updated in place by later calls.
+     *
+     * @return The distance array.
+     */
+    public int[] getField() {
+        return distance;
+    }
+
+    /**
+     * Copies the field into a float array, mapping {@link #UNREACHABLE} to positive infinity.
+     *
+     * @param out Array of at least {@link GridGraph#size()} entries.
+     */
+    public void copyTo(float[] out) {
+        for (int i = 0; i < distance.length; i++) {
+            out[i] = distance[i] == UNREACHABLE ? Float.POSITIVE_INFINITY : distance[i];
+        }
+    }
+
+    public GridGraph getGraph() {
+        return graph;
+    }
+
+    private void resetSeeds(long[] seeds, int count) {
+        Arrays.fill(seed, false);
+        Arrays.fill(distance, UNREACHABLE);
+        Arrays.fill(parent, -1);
+        for (int i = 0; i < count; i++) {
+            int index = graph.index(PackedCoordinate.x(seeds[i]), PackedCoordinate.y(seeds[i]));
+            seed[index] = true;
+            distance[index] = 0;
+        }
+    }
+
+    /**
+     * Invalidates a coordinate and every coordinate whose cheapest path runs through it,
+     * then recomputes them from the valid coordinates bordering the invalidated region.
+     */
+    private void repair(int root) {
+        nextStamp();
+
+        // Collect the subtree of the root in the predecessor forest
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = root;
+        affected[root] = stamp;
+        while (head < tail) {
+            int current = queue[head++];
+            int neighbours = graph.getNeighbours(graph.getX(current), graph.getY(current), neighbourX, neighbourY);
+            for (int i = 0; i < neighbours; i++) {
+                int neighbour = graph.index(neighbourX[i], neighbourY[i]);
+                if (parent[neighbour] == current && affected[neighbour] != stamp) {
+                    affected[neighbour] = stamp;
+                    queue[tail++] = neighbour;
+                }
+            }
+        }
+
+        for (int i = 0; i < tail; i++) {
+            int index = queue[i];
+            distance[index] = seed[index] ? 0 : UNREACHABLE;
+            parent[index] = -1;
+        }
+
+        // Seed the search with the best distance each invalidated coordinate can get from valid neighbours
+        heap.clear();
+        for (int i = 0; i < tail; i++) {
+            int index = queue[i];
+            int x = graph.getX(index);
+            int y = graph.getY(index);
+            if (!seed[index] && passability.isPassable(x, y)) {
+                int neighbours = graph.getNeighbours(x, y, neighbourX, neighbourY);
+                for (int n = 0; n < neighbours; n++) {
+                    int neighbour = graph.index(neighbourX[n], neighbourY[n]);
+                    if (affected[neighbour] == stamp || distance[neighbour] == UNREACHABLE)
+                        continue;
+                    int candidate = distance[neighbour] + stepCost.cost(neighbourX[n], neighbourY[n], x, y);
+                    if (candidate < distance[index]) {
+                        distance[index] = candidate;
+                        parent[index] = neighbour;
+                    }
+                }
+            }
+            if (distance[index] != UNREACHABLE)
+                heap.push(LongHeap.entry(distance[index], index));
+        }
+        propagate();
+    }
+
+    /**
+     * Dijkstra relaxation from the coordinates in the heap.
+     */
+    private void propagate() {
+        while (!heap.isEmpty()) {
+            long entry = heap.pop();
+            int current = LongHeap.index(entry);
+            if (LongHeap.priority(entry) != distance[current])
+                continue;  // stale heap entry
+
+            int currentX = graph.getX(current);
+            int currentY = graph.getY(current);
+            int neighbours = graph.getNeighbours(currentX, currentY, neighbourX, neighbourY);
+            for (int i = 0; i < neighbours; i++) {
+                int x = neighbourX[i];
+                int y = neighbourY[i];
+                int neighbour = graph.index(x, y);
+                if (seed[neighbour] || !passability.isPassable(x, y))
+                    continue;
+                int candidate = distance[current] + stepCost.cost(currentX, currentY, x, y);
+                if (candidate < distance[neighbour]) {
+                    distance[neighbour] = candidate;
+                    parent[neighbour] = current;
+                    heap.push(LongHeap.entry(candidate, neighbour));
+                }
+            }
+        }
+    }
+
+    /**
+     * Relaxes one row of coordinates against all of their neighbours, in the given direction.
+     *
+     * @return true if any distance decreased.
+     */
+    private boolean relaxRow(int y, boolean forward, int[] bufferX, int[] bufferY) {
+        boolean changed = false;
+        int width = graph.getWidth();
+        for (int i = 0; i < width; i++) {
+            int x = forward ? i : width - 1 - i;
+            int index = graph.index(x, y);
+            if (seed[index] || !passability.isPassable(x, y))
+                continue;
+            int neighbours = graph.getNeighbours(x, y, bufferX, bufferY);
+            for (int n = 0; n < neighbours; n++) {
+                int neighbourDistance = distance[graph.index(bufferX[n], bufferY[n])];
+                if (neighbourDistance == UNREACHABLE)
+                    continue;
+                int candidate = neighbourDistance + stepCost.cost(bufferX[n], bufferY[n], x, y);
+                if (candidate < distance[index]) {
+                    distance[index] = candidate;
+                    parent[index] = graph.index(bufferX[n], bufferY[n]);
+                    changed = true;
+                }
+            }
+        }
+        return changed;
+    }
+
+    private void nextStamp() {
+        if (++stamp == Integer.MAX_VALUE) {
+            Arrays.fill(affected, 0);
+            stamp = 1;
+        }
+    }
+
+    /**
+     * Relaxes a range of bands once, splitting it in half until a single band remains.
+     */
+    @SuppressWarnings("serial") // never serialized
+    private class RelaxTask extends RecursiveTask<Boolean> {
+        private final int firstBand;
+        private final int endBand;
+        private final int bandHeight;
+
+        RelaxTask(int firstBand, int endBand, int bandHeight) {
+            this.firstBand = firstBand;
+            this.endBand = endBand;
+            this.bandHeight = bandHeight;
+        }
+
+        @Override
+        protected Boolean compute() {
+            if (endBand - firstBand > 1) {
+                int middle = (firstBand + endBand) >>> 1;
+                RelaxTask upper = new RelaxTask(firstBand, middle, bandHeight);
+                upper.fork();
+                boolean lowerChanged = new RelaxTask(middle, endBand, bandHeight).compute();
+                return upper.join() | lowerChanged;
+            }
+
+            int[] bufferX = new int[GridGraph.MAXIMUM_NEIGHBOURS];
+            int[] bufferY = new int[GridGraph.MAXIMUM_NEIGHBOURS];
+            int firstRow = firstBand * bandHeight;
+            int endRow = Math.min(graph.getHeight(), firstRow + bandHeight);
+            boolean changed = false;
+            for (int y = firstRow; y < endRow; y++) {
+                changed |= relaxRow(y, true, bufferX, bufferY);
+            }
+            for (int y = endRow - 1; y >= firstRow; y--) {
+                changed |= relaxRow(y, false, bufferX, bufferY);
+            }
+            return changed;
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package hextrigrid.grid.pathfinding;
+
+/**
+ * A layer of a grid seen as a graph for searching: a bounded rectangle of coordinates, each connected to up to six
+ * neighbours. Coordinates are mapped to dense indices in row-major order so search state can be held in arrays.
+ */
+public abstract class GridGraph {
+    /** Maximum number of neighbours of a coordinate */
+    public static final int MAXIMUM_NEIGHBOURS = 6;
+
+    protected final int width;
+    protected final int height;
+
+    protected GridGraph(int width, int height) {
+        this.width = width;
+        this.height = height;
+    }
+
+    /**
+     * Writes the coordinates of the existing neighbours of a coordinate into caller supplied buffers.
+     *
+     * @param x    The x-coordinate.
+     * @param y    The y-coordinate.
+     * @param outX Buffer receiving up to {@link #MAXIMUM_NEIGHBOURS} x-coordinates.
+     * @param outY Buffer receiving up to {@link #MAXIMUM_NEIGHBOURS} y-coordinates.
+     * @return The number of neighbours written.
+     */
+    public abstract int getNeighbours(int x, int y, int[] outX, int[] outY);
+
+    /**
+     * Returns the minimum number of steps between two coordinates, ignoring passability.
+     *
+     * @param ax The x-coordinate of the first coordinate.
+     * @param ay The y-coordinate of the first coordinate.
+     * @param bx The x-coordinate of the second coordinate.
+     * @param by The y-coordinate of the second coordinate.
+     * @return The step distance.
+     */
+    public abstract int distance(int ax, int ay, int bx, int by);
+
+    /**
+     * Checks whether a coordinate is part of the graph.
+     *
+     * @param x The x-coordinate.
+     * @param y The y-coordinate.
+     * @return {@code true} if the coordinate is inside the bounds.
+     */
+    public boolean contains(int x, int y) {
+        return y >= 0 && y < height && x >= 0 && x < width;
+    }
+
+    /**
+     * Gets the dense index of a coordinate.
+     *
+     * @param x The x-coordinate.
+     * @param y The y-coordinate.
+     * @return The index, from 0 to {@link #size()} - 1.
+     */
+    public int index(int x, int y) {
+        return y * width + x;
+    }
+
+    public int getX(int index) {
+        return index % width;
+    }
+
+    public int getY(int index) {
+        return index / width;
+    }
+
+    /**
+     * Gets the number of coordinates in the graph.
+     *
+     * @return width * height.
+     */
+    public int size() {
+        return width * height;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Step distance on a hexagonal lattice given axial coordinates.
+     */
+    static int axialDistance(int aq, int ar, int bq, int br) {
+        int dq = aq - bq;
+        int dr = ar - br;
+        return (Math.abs(dq) + Math.abs(dr) + Math.abs(dq + dr)) / 2;
+    }
+}
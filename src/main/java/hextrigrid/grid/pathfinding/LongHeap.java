@@ -0,0 +1,69 @@
+package hextrigrid.grid.pathfinding;
+
+import java.util.Arrays;
+
+/**
+ * Binary min-heap of primitive longs. Searches pack a priority into the upper 32 bits and a node index into the
+ * lower 32 bits, so the heap orders by priority without boxing. The backing array grows on demand and is kept
+ * between searches.
+ */
+final class LongHeap {
+    private long[] heap;
+    private int size;
+
+    LongHeap(int initialCapacity) {
+        heap = new long[Math.max(16, initialCapacity)];
+    }
+
+    static long entry(int priority, int index) {
+        return ((long) priority << 32) | (index & 0xFFFFFFFFL);
+    }
+
+    static int priority(long entry) {
+        return (int) (entry >> 32);
+    }
+
+    static int index(long entry) {
+        return (int) entry;
+    }
+
+    void push(long entry) {
+        if (size == heap.length)
+            heap = Arrays.copyOf(heap, size * 2);
+        int i = size++;
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (heap[parent] <= entry)
+                break;
+            heap[i] = heap[parent];
+            i = parent;
+        }
+        heap[i] = entry;
+    }
+
+    long pop() {
+        long top = heap[0];
+        long last = heap[--size];
+        int i = 0;
+        int half = size >>> 1;
+        while (i < half) {
+            int child = 2 * i + 1;
+            if (child + 1 < size && heap[child + 1] < heap[child])
+                child++;
+            if (last <= heap[child])
+                break;
+            heap[i] = heap[child];
+            i = child;
+        }
+        heap[i] = last;
+        return top;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    void clear() {
+        size = 0;
+    }
+}
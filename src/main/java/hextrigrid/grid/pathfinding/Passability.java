@@ -0,0 +1,19 @@
+package hextrigrid.grid.pathfinding;
+
+/**
+ * Decides whether a coordinate of a {@link GridGraph} may be entered.
+ */
+@FunctionalInterface
+public interface Passability {
+    /** Passability allowing every coordinate */
+    Passability ALL = (x, y) -> true;
+
+    /**
+     * Checks whether a coordinate may be entered.
+     *
+     * @param x The x-coordinate.
+     * @param y The y-coordinate.
+     * @return {@code true} if the coordinate is passable.
+     */
+    boolean isPassable(int x, int y);
+}
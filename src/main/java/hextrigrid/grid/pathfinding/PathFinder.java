@@ -0,0 +1,160 @@
+package hextrigrid.grid.pathfinding;
+
+import hextrigrid.grid.PackedCoordinate;
+
+import java.util.Arrays;
+
+/**
+ * A* search over a {@link GridGraph}, with Dijkstra's algorithm as the special case of a zero heuristic.
+ * <p>
+ * All search state lives in primitive arrays indexed by the graph's dense coordinate indices and is reused between
+ * queries: a query stamps the entries it touches instead of clearing the arrays, so steady-state searches allocate
+ * nothing. The open set is a binary heap of packed (priority, index) longs with lazy deletion.
+ * <p>
+ * A PathFinder is not thread-safe; use one per thread.
+ */
+public class PathFinder {
+    private final GridGraph graph;
+    /** Best known cost from the start, valid where {@code visited[i] == stamp} */
+    private final int[] cost;
+    /** Index of the previous coordinate on the best known path */
+    private final int[] parent;
+    private final int[] visited;
+    private final int[] closed;
+    private final LongHeap open;
+    private final int[] neighbourX = new int[GridGraph.MAXIMUM_NEIGHBOURS];
+    private final int[] neighbourY = new int[GridGraph.MAXIMUM_NEIGHBOURS];
+    private int stamp;
+    /** Lower bound on the cost of a single step, used to scale the heuristic */
+    private int minimumStepCost = 1;
+    /** Goal index of the last successful search, or -1 */
+    private int pathEnd = -1;
+    private int pathLength;
+
+    public PathFinder(GridGraph graph) {
+        this.graph = graph;
+        int size = graph.size();
+        this.cost = new int[size];
+        this.parent = new int[size];
+        this.visited = new int[size];
+        this.closed = new int[size];
+        this.open = new LongHeap(size);
+    }
+
+    /**
+     * Sets the lower bound on the cost of any step. The heuristic is the step distance times this value, so it must
+     * not exceed the cheapest step for paths to be optimal. Zero turns the search into Dijkstra's algorithm.
+     *
+     * @param minimumStepCost The minimum step cost (default 1).
+     */
+    public void setMinimumStepCost(int minimumStepCost) {
+        this.minimumStepCost = minimumStepCost;
+    }
+
+    /**
+     * Finds a cheapest path between two coordinates.
+     *
+     * @param startX      The x-coordinate of the start.
+     * @param startY      The y-coordinate of the start.
+     * @param goalX       The x-coordinate of the goal.
+     * @param goalY       The y-coordinate of the goal.
+     * @param stepCost    The cost of each step.
+     * @param passability Which coordinates may be entered; the start is always allowed.
+     * @return The total cost of the path, or -1 if the goal cannot be reached.
+     */
+    public int findPath(int startX, int startY, int goalX, int goalY, StepCost stepCost, Passability passability) {
+        pathEnd = -1;
+        pathLength = 0;
+        if (!graph.contains(startX, startY) || !graph.contains(goalX, goalY) || !passability.isPassable(goalX, goalY))
+            return -1;
+
+        nextStamp();
+        open.clear();
+        int start = graph.index(startX, startY);
+        int goal = graph.index(goalX, goalY);
+        cost[start] = 0;
+        parent[start] = -1;
+        visited[start] = stamp;
+        open.push(LongHeap.entry(heuristic(startX, startY, goalX, goalY), start));
+
+        while (!open.isEmpty()) {
+            int current = LongHeap.index(open.pop());
+            if (closed[current] == stamp)
+                continue;  // stale heap entry
+            closed[current] = stamp;
+
+            if (current == goal) {
+                pathEnd = goal;
+                pathLength = countPath(goal);
+                return cost[goal];
+            }
+
+            int currentX = graph.getX(current);
+            int currentY = graph.getY(current);
+            int neighbours = graph.getNeighbours(currentX, currentY, neighbourX, neighbourY);
+            for (int i = 0; i < neighbours; i++) {
+                int x = neighbourX[i];
+                int y = neighbourY[i];
+                int neighbour = graph.index(x, y);
+                if (closed[neighbour] == stamp || !passability.isPassable(x, y))
+                    continue;
+
+                int tentative = cost[current] + stepCost.cost(currentX, currentY, x, y);
+                if (visited[neighbour] != stamp || tentative < cost[neighbour]) {
+                    visited[neighbour] = stamp;
+                    cost[neighbour] = tentative;
+                    parent[neighbour] = current;
+                    open.push(LongHeap.entry(tentative + heuristic(x, y, goalX, goalY), neighbour));
+                }
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Gets the number of coordinates on the path found by the last search, start and goal included.
+     *
+     * @return The path length, or 0 if the last search failed.
+     */
+    public int getPathLength() {
+        return pathLength;
+    }
+
+    /**
+     * Writes the path found by the last search, from start to goal, as packed coordinates.
+     *
+     * @param out Buffer of at least {@link #getPathLength()} entries.
+     * @return The number of coordinates written.
+     */
+    public int getPath(long[] out) {
+        int i = pathLength;
+        for (int node = pathEnd; node != -1 && i > 0; node = parent[node]) {
+            out[--i] = PackedCoordinate.pack(graph.getX(node), graph.getY(node));
+        }
+        return pathLength;
+    }
+
+    private int countPath(int end) {
+        int length = 0;
+        for (int node = end; node != -1; node = parent[node]) {
+            length++;
+        }
+        return length;
+    }
+
+    private int heuristic(int x, int y, int goalX, int goalY) {
+        return graph.distance(x, y, goalX, goalY) * minimumStepCost;
+    }
+
+    private void nextStamp() {
+        if (++stamp == Integer.MAX_VALUE) {
+            Arrays.fill(visited, 0);
+            Arrays.fill(closed, 0);
+            stamp = 1;
+        }
+    }
+
+    public GridGraph getGraph() {
+        return graph;
+    }
+}
@@ -0,0 +1,21 @@
+package hextrigrid.grid.pathfinding;
+
+/**
+ * Cost of moving between two neighbouring coordinates of a {@link GridGraph}.
+ */
+@FunctionalInterface
+public interface StepCost {
+    /** Cost function giving every step a cost of 1 */
+    StepCost UNIFORM = (fromX, fromY, toX, toY) -> 1;
+
+    /**
+     * Returns the cost of a step.
+     *
+     * @param fromX The x-coordinate the step starts at.
+     * @param fromY The y-coordinate the step starts at.
+     * @param toX   The x-coordinate the step ends at.
+     * @param toY   The y-coordinate the step ends at.
+     * @return The non-negative cost of the step.
+     */
+    int cost(int fromX, int fromY, int toX, int toY);
+}
@@ -0,0 +1,34 @@
+package hextrigrid.grid.pathfinding;
+
+import hextrigrid.grid.composite.CompositeGrid;
+
+/**
+ * The hexagonal tiles of a {@link CompositeGrid}, connected through their shared borders.
+ */
+public class TileGraph extends GridGraph {
+    public TileGraph(CompositeGrid grid) {
+        super(grid.getWidth(), grid.getHeight());
+    }
+
+    @Override
+    public int getNeighbours(int x, int y, int[] outX, int[] outY) {
+        int[][] diffs = CompositeGrid.hexagonDirectionDifferences[x & 1];
+        int count = 0;
+        for (int direction = 0; direction < 6; direction++) {
+            int neighbourX = x + diffs[direction][0];
+            int neighbourY = y + diffs[direction][1];
+            if (contains(neighbourX, neighbourY)) {
+                outX[count] = neighbourX;
+                outY[count] = neighbourY;
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public int distance(int ax, int ay, int bx, int by) {
+        // odd columns are shifted down half a row
+        return axialDistance(ax, ay - (ax - (ax & 1)) / 2, bx, by - (bx - (bx & 1)) / 2);
+    }
+}
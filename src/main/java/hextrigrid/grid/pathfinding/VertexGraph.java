@@ -0,0 +1,35 @@
+package hextrigrid.grid.pathfinding;
+
+import hextrigrid.grid.triangle.TriangleGrid;
+
+/**
+ * The vertices of a {@link TriangleGrid}, connected along its edges.
+ */
+public class VertexGraph extends GridGraph {
+    public VertexGraph(TriangleGrid grid) {
+        super(grid.getWidth(), grid.getHeight());
+    }
+
+    @Override
+    public int getNeighbours(int x, int y, int[] outX, int[] outY) {
+        int[][] diffs = TriangleGrid.directionDifferences[y & 1];
+        int count = 0;
+        for (int direction = 0; direction < 6; direction++) {
+            int neighbourX = x + diffs[direction][0];
+            int neighbourY = y + diffs[direction][1];
+            // an edge exists exactly when the vertex at its end exists
+            if (contains(neighbourX, neighbourY)) {
+                outX[count] = neighbourX;
+                outY[count] = neighbourY;
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public int distance(int ax, int ay, int bx, int by) {
+        // odd rows are shifted left half a column
+        return axialDistance(ax - (ay + (ay & 1)) / 2, ay, bx - (by + (by & 1)) / 2, by);
+    }
+}
@@ -0,0 +1,37 @@
+package hextrigrid.grid.triangle;
+
+import hextrigrid.grid.Edge;
+
+/**
+ * An edge created on demand by a compact grid, identified by the triangle coordinate of the node holding it
+ * and the edge index (0-2) within that node. Views of the same edge are equal.
+ */
+public final class EdgeView extends Edge {
+    public final int x;
+    public final int y;
+    public final int edgeIndex;
+
+    public EdgeView(int x, int y, int edgeIndex) {
+        this.x = x;
+        this.y = y;
+        this.edgeIndex = edgeIndex;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o)
+            return true;
+        if (!(o instanceof EdgeView))
+            return false;
+        EdgeView edge = (EdgeView) o;
+        return x == edge.x && y == edge.y && edgeIndex == edge.edgeIndex;
+    }
+
+    /**
+     * Distinct for every edge of grids up to 16384 wide and 65536 high.
+     */
+    @Override
+    public int hashCode() {
+        return (x << 18) ^ (y << 2) ^ edgeIndex;
+    }
+}
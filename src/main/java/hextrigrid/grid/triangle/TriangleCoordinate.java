@@ -1,5 +1,7 @@
 package hextrigrid.grid.triangle;
 
+import hextrigrid.grid.PackedCoordinate;
+
 import java.awt.*;
 
 public class TriangleCoordinate {
@@ -16,4 +18,45 @@ public class TriangleCoordinate {
         int b = (y / 2) - (a & 1);
         return new Point(a, b);
     }
+
+    /**
+     * Determines if a triangle coordinate is the centre of a hexagon.
+     * Uses floor modulo so that the pattern continues across negative coordinates.
+     *
+     * @param x the triangle x-coordinate.
+     * @param y the triangle y-coordinate.
+     * @return true if the coordinate is a hexagon centre.
+     */
+    public static boolean isHexagonCentre(int x, int y) {
+        int column = Math.floorMod(x, 3);
+        return (column == 1 && (y & 1) == 1) || (column == 2 && (y & 1) == 0);
+    }
+
+    /**
+     * Allocation-free equivalent of {@link #getHexagonCoordinate()}.
+     * Uses floor division so that negative triangle coordinates map consistently.
+     *
+     * @param x the triangle x-coordinate.
+     * @param y the triangle y-coordinate.
+     * @return the packed hexagon coordinate (see {@link PackedCoordinate}).
+     */
+    public static long getPackedHexagonCoordinate(int x, int y) {
+        int a = Math.floorDiv(2 * x, 3);
+        int b = Math.floorDiv(y, 2) - (a & 1);
+        return PackedCoordinate.pack(a, b);
+    }
+
+    /**
+     * Inverse of {@link #getPackedHexagonCoordinate}: the triangle coordinate of the centre of a hexagon.
+     *
+     * @param hexagonX the hexagon column.
+     * @param hexagonY the hexagon row.
+     * @return the packed triangle coordinate of the hexagon centre.
+     */
+    public static long getPackedHexagonCentre(int hexagonX, int hexagonY) {
+        int odd = hexagonX & 1;
+        int x = Math.floorDiv(3 * hexagonX + 2 - odd, 2);
+        int y = 2 * hexagonY + 1 + odd;
+        return PackedCoordinate.pack(x, y);
+    }
 }
@@ -1,5 +1,9 @@
 package hextrigrid.grid.triangle;
 
+/**
+ * A triangular face of the grid. Faces held by a grid are compared by identity; the views a compact grid creates
+ * on each call carry their coordinate and compare by it, see {@link TriangleFaceView}.
+ */
 public class TriangleFace {
     public final static boolean POINTY_UP = false;
     public final static boolean POINTY_DOWN = true;
@@ -0,0 +1,35 @@
+package hextrigrid.grid.triangle;
+
+/**
+ * A face created on demand by a compact grid, identified by the triangle coordinate of the node holding it
+ * and its orientation. Views of the same face are equal.
+ */
+public final class TriangleFaceView extends TriangleFace {
+    public final int x;
+    public final int y;
+    public final boolean pointing;
+
+    public TriangleFaceView(int x, int y, boolean pointing) {
+        this.x = x;
+        this.y = y;
+        this.pointing = pointing;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o)
+            return true;
+        if (!(o instanceof TriangleFaceView))
+            return false;
+        TriangleFaceView face = (TriangleFaceView) o;
+        return x == face.x && y == face.y && pointing == face.pointing;
+    }
+
+    /**
+     * Distinct for every face of grids up to 32768 wide and 65536 high.
+     */
+    @Override
+    public int hashCode() {
+        return (x << 17) ^ (y << 1) ^ (pointing ? 1 : 0);
+    }
+}
@@ -1,20 +1,27 @@
 package hextrigrid.grid.triangle;
 
 import hextrigrid.grid.Edge;
+import hextrigrid.grid.PackedCoordinate;
 import hextrigrid.grid.Vertex;
+import hextrigrid.grid.metrics.GridConstructionEvent;
+import hextrigrid.grid.metrics.GridCounter;
+import hextrigrid.grid.metrics.GridMetrics;
 
 import java.awt.*;
+import java.util.stream.IntStream;
 
 /**
  * The TriangleGrid class represents a grid of triangular nodes, with methods to manage and access nodes, edges, and faces.
  */
 public class TriangleGrid {
-    // 2D array of node objects representing the grid.
+    // 2D array of node objects representing the grid, null when the grid uses compact storage.
     private TriangleGridNode[][] nodes;
 
     // Grid dimensions: width and height.
     private final int gridWidth;
     private final int gridHeight;
+    // Node count from which rows are created in parallel.
+    private static final int PARALLEL_THRESHOLD = 1 << 16;
 
     // Direction differences for the grid (for even and odd rows).
     public static final int[][][] directionDifferences = {
@@ -35,61 +42,110 @@ public class TriangleGrid {
      * @param gridHeight the number of vertices in the vertical direction.
      */
     public TriangleGrid(int gridWidth, int gridHeight) {
+        this(gridWidth, gridHeight, false);
+    }
+
+    /**
+     * Constructor to create a TriangleGrid with specified width and height, optionally using compact storage.
+     * <p>
+     * In compact mode no node objects are allocated. Vertices, edges and faces are addressed by dense integer
+     * indices (see {@link #getVertexIndex}, {@link #getEdgeIndex} and {@link #getFaceIndex}) and border existence
+     * is computed from the coordinates. {@link #getNode}, {@link #getVertex}, {@link #getEdge} and
+     * {@link #getFace} remain available and return view objects created on each call, which carry their coordinate
+     * and compare by it (see {@link VertexView}, {@link EdgeView} and {@link TriangleFaceView}). In object mode the
+     * elements hold no coordinate and are compared by identity.
+     *
+     * @param gridWidth the number of vertices in the horizontal direction.
+     * @param gridHeight the number of vertices in the vertical direction.
+     * @param compact true to use compact index storage instead of node objects.
+     */
+    public TriangleGrid(int gridWidth, int gridHeight, boolean compact) {
+        GridConstructionEvent event = new GridConstructionEvent();
+        event.begin();
         this.gridWidth = gridWidth;
         this.gridHeight = gridHeight;
-        nodes = new TriangleGridNode[gridHeight][];
-        createGrid();
-        trimBorderNodes();
+        if (!compact) {
+            nodes = new TriangleGridNode[gridHeight][];
+            createGrid();
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.gridType = "TriangleGrid";
+            event.width = gridWidth;
+            event.height = gridHeight;
+            event.compact = compact;
+            event.commit();
+        }
     }
 
     /**
-     * Initializes the grid by creating a new TriangleGridNode for each cell in the grid.
+     * Initializes the grid by creating a new TriangleGridNode for each cell in the grid. Rows are independent,
+     * so large grids are built in parallel.
      */
     private void createGrid() {
-        // Iterate over the rows
-        for (int y = 0; y < gridHeight; y++) {
-            // Initialize the columns for each row
-            nodes[y] = new TriangleGridNode[gridWidth];
-            for (int x = 0; x < gridWidth; x++) {
-                // Create a new node for each (x, y) position
-                nodes[y][x] = new TriangleGridNode();
+        if ((long) gridWidth * gridHeight >= PARALLEL_THRESHOLD)
+            IntStream.range(0, gridHeight).parallel().forEach(this::createRow);
+        else
+            for (int y = 0; y < gridHeight; y++) {
+                createRow(y);
             }
+    }
+
+    /**
+     * Creates the nodes of a row and trims the border nodes among them.
+     * Only nodes in the first or last row or column can lose an edge or face, so interior nodes are not checked.
+     *
+     * @param y the y-coordinate of the row.
+     */
+    private void createRow(int y) {
+        TriangleGridNode[] row = new TriangleGridNode[gridWidth];
+        boolean borderRow = y == 0 || y == gridHeight - 1;
+        for (int x = 0; x < gridWidth; x++) {
+            // Create a new node for each (x, y) position
+            TriangleGridNode node = new TriangleGridNode();
+            if (borderRow || x == 0 || x == gridWidth - 1)
+                trimNode(node, x, y);
+            row[x] = node;
         }
+        nodes[y] = row;
     }
 
     /**
-     * Trims the border nodes, removing edges and faces that don't have valid neighbors.
+     * Removes the edges and faces of a node that don't have valid neighbors.
+     *
+     * @param node the node to trim.
+     * @param x the x-coordinate of the node.
+     * @param y the y-coordinate of the node.
      */
-    private void trimBorderNodes() {
-        // Iterate over each node in the grid
-        for (int y = 0; y < gridHeight; y++) {
-            for (int x = 0; x < gridWidth; x++) {
-                // Trim edges that don't have neighbors
-                for (int edgeIndex = 0; edgeIndex < 3; edgeIndex++) {
-                    if (!nodeAtEndOfEdgeExists(x, y, edgeIndex))
-                        getNode(x, y).edges[edgeIndex] = null;  // Remove edge
-                }
+    private void trimNode(TriangleGridNode node, int x, int y) {
+        // Trim edges that don't have neighbors
+        for (int edgeIndex = 0; edgeIndex < 3; edgeIndex++) {
+            if (!edgeExists(x, y, edgeIndex))
+                node.edges[edgeIndex] = null;  // Remove edge
+        }
 
-                // Trim faces that don't have valid neighbors
-                if (!nodeAtEndOfEdgeExists(x, y, 0) || !nodeAtEndOfEdgeExists(x, y, 1))
-                    getNode(x, y).faceUp = null;  // Remove upper face
+        // Trim faces that don't have valid neighbors
+        if (!faceExists(x, y, TriangleFace.POINTY_UP))
+            node.faceUp = null;  // Remove upper face
 
-                if (!nodeAtEndOfEdgeExists(x, y, 3) || !nodeAtEndOfEdgeExists(x, y, 4))
-                    getNode(x, y).faceDown = null;  // Remove lower face
-            }
-        }
+        if (!faceExists(x, y, TriangleFace.POINTY_DOWN))
+            node.faceDown = null;  // Remove lower face
     }
 
     /**
      * Checks if a neighbor exists for the node at the given (x, y) position in the given direction.
+     * Existence is computed from the coordinates, so no node is looked up.
      *
      * @param x the x-coordinate of the node.
      * @param y the y-coordinate of the node.
      * @param hexagonDirectionIndex the direction index (0-5).
+     * @param gridWidth the number of vertices in the horizontal direction.
+     * @param gridHeight the number of vertices in the vertical direction.
      * @return true if the neighbor exists, false otherwise.
      */
-    private boolean nodeAtEndOfEdgeExists(int x, int y, int hexagonDirectionIndex) {
-        return getNodeAtEndOfEdge(x, y, hexagonDirectionIndex) != null;
+    private static boolean nodeAtEndOfEdgeExists(int x, int y, int hexagonDirectionIndex, int gridWidth, int gridHeight) {
+        int[] diff = directionDifferences[y & 1][hexagonDirectionIndex];
+        return vertexExists(x + diff[0], y + diff[1], gridWidth, gridHeight);
     }
 
     /**
@@ -114,9 +170,16 @@ public class TriangleGrid {
      * @return the node at the given coordinates, or null if out of bounds.
      */
     public TriangleGridNode getNode(int x, int y) {
-        if (y < 0 || y >= gridHeight || x < 0 || x >= gridWidth) {
+        if (!vertexExists(x, y)) {
             return null;  // Return null if the coordinates are out of bounds
         }
+        if (nodes == null) {
+            // Compact storage: build a trimmed view of the node
+            GridMetrics.increment(GridCounter.VIEW_ALLOCATIONS);
+            TriangleGridNode node = new TriangleGridNode(x, y);
+            trimNode(node, x, y);
+            return node;
+        }
         return nodes[y][x];
     }
 
@@ -125,9 +188,15 @@ public class TriangleGrid {
      *
      * @param x the x-coordinate of the node.
      * @param y the y-coordinate of the node.
-     * @return the vertex of the node at the given position.
+     * @return the vertex of the node at the given position, or null if out of bounds.
      */
     public Vertex getVertex(int x, int y) {
+        if (!vertexExists(x, y))
+            return null;
+        if (nodes == null) {
+            GridMetrics.increment(GridCounter.VIEW_ALLOCATIONS);
+            return new VertexView(x, y);
+        }
         return nodes[y][x].vertex;
     }
 
@@ -137,9 +206,17 @@ public class TriangleGrid {
      * @param x the x-coordinate of the node.
      * @param y the y-coordinate of the node.
      * @param edgeIndex the index of the edge (0-2).
-     * @return the edge at the given position and index.
+     * @return the edge at the given position and index, or null if out of bounds or trimmed.
      */
     public Edge getEdge(int x, int y, int edgeIndex) {
+        if (!vertexExists(x, y))
+            return null;
+        if (nodes == null) {
+            if (!edgeExists(x, y, edgeIndex))
+                return null;
+            GridMetrics.increment(GridCounter.VIEW_ALLOCATIONS);
+            return new EdgeView(x, y, edgeIndex);
+        }
         return nodes[y][x].edges[edgeIndex];
     }
 
@@ -149,9 +226,17 @@ public class TriangleGrid {
      * @param x the x-coordinate of the node.
      * @param y the y-coordinate of the node.
      * @param pointing true for the upper face (pointy up), false for the lower face (pointy down).
-     * @return the face of the node in the specified direction.
+     * @return the face of the node in the specified direction, or null if out of bounds or trimmed.
      */
     public TriangleFace getFace(int x, int y, boolean pointing) {
+        if (!vertexExists(x, y))
+            return null;
+        if (nodes == null) {
+            if (!faceExists(x, y, pointing))
+                return null;
+            GridMetrics.increment(GridCounter.VIEW_ALLOCATIONS);
+            return new TriangleFaceView(x, y, pointing);
+        }
         if (pointing == TriangleFace.POINTY_UP) {
             return nodes[y][x].faceUp;  // Return the upper face
         } else {
@@ -159,6 +244,177 @@ public class TriangleGrid {
         }
     }
 
+    /**
+     * Checks whether the grid uses compact index storage rather than node objects.
+     *
+     * @return true if no node objects are held by the grid.
+     */
+    public boolean isCompact() {
+        return nodes == null;
+    }
+
+    /**
+     * Checks whether a vertex exists at the specified (x, y) position.
+     *
+     * @param x the x-coordinate of the node.
+     * @param y the y-coordinate of the node.
+     * @return true if the coordinates are inside the grid.
+     */
+    public boolean vertexExists(int x, int y) {
+        return vertexExists(x, y, gridWidth, gridHeight);
+    }
+
+    /**
+     * Checks whether a vertex exists at the specified (x, y) position of a grid of the given size.
+     *
+     * @param x the x-coordinate of the node.
+     * @param y the y-coordinate of the node.
+     * @param gridWidth the number of vertices in the horizontal direction.
+     * @param gridHeight the number of vertices in the vertical direction.
+     * @return true if the coordinates are inside the grid.
+     */
+    public static boolean vertexExists(int x, int y, int gridWidth, int gridHeight) {
+        return y >= 0 && y < gridHeight && x >= 0 && x < gridWidth;
+    }
+
+    /**
+     * Checks whether the edge held by the node at (x, y) survived border trimming,
+     * i.e. whether the node at the other end of the edge exists.
+     *
+     * @param x the x-coordinate of the node.
+     * @param y the y-coordinate of the node.
+     * @param edgeIndex the index of the edge (0-2).
+     * @return true if the edge exists.
+     */
+    public boolean edgeExists(int x, int y, int edgeIndex) {
+        return edgeExists(x, y, edgeIndex, gridWidth, gridHeight);
+    }
+
+    /**
+     * Checks whether the edge held by the node at (x, y) of a grid of the given size survived border trimming.
+     *
+     * @param x the x-coordinate of the node.
+     * @param y the y-coordinate of the node.
+     * @param edgeIndex the index of the edge (0-2).
+     * @param gridWidth the number of vertices in the horizontal direction.
+     * @param gridHeight the number of vertices in the vertical direction.
+     * @return true if the edge exists.
+     */
+    public static boolean edgeExists(int x, int y, int edgeIndex, int gridWidth, int gridHeight) {
+        return nodeAtEndOfEdgeExists(x, y, edgeIndex, gridWidth, gridHeight);
+    }
+
+    /**
+     * Checks whether the face held by the node at (x, y) survived border trimming,
+     * i.e. whether both other corners of the face exist.
+     *
+     * @param x the x-coordinate of the node.
+     * @param y the y-coordinate of the node.
+     * @param pointing true for the upper face (pointy up), false for the lower face (pointy down).
+     * @return true if the face exists.
+     */
+    public boolean faceExists(int x, int y, boolean pointing) {
+        return faceExists(x, y, pointing, gridWidth, gridHeight);
+    }
+
+    /**
+     * Checks whether the face held by the node at (x, y) of a grid of the given size survived border trimming.
+     *
+     * @param x the x-coordinate of the node.
+     * @param y the y-coordinate of the node.
+     * @param pointing true for the upper face (pointy up), false for the lower face (pointy down).
+     * @param gridWidth the number of vertices in the horizontal direction.
+     * @param gridHeight the number of vertices in the vertical direction.
+     * @return true if the face exists.
+     */
+    public static boolean faceExists(int x, int y, boolean pointing, int gridWidth, int gridHeight) {
+        if (pointing == TriangleFace.POINTY_UP)
+            return nodeAtEndOfEdgeExists(x, y, 0, gridWidth, gridHeight) && nodeAtEndOfEdgeExists(x, y, 1, gridWidth, gridHeight);
+        else
+            return nodeAtEndOfEdgeExists(x, y, 3, gridWidth, gridHeight) && nodeAtEndOfEdgeExists(x, y, 4, gridWidth, gridHeight);
+    }
+
+    /**
+     * Gets the dense index of the vertex at the specified (x, y) position.
+     * Vertex indices run from 0 to {@link #getVertexCount()} - 1 in row-major order.
+     *
+     * @param x the x-coordinate of the node.
+     * @param y the y-coordinate of the node.
+     * @return the vertex index.
+     */
+    public int getVertexIndex(int x, int y) {
+        return y * gridWidth + x;
+    }
+
+    /**
+     * Gets the dense index of an edge. Each node owns three consecutive edge indices,
+     * including indices of edges removed by border trimming (see {@link #edgeExists}).
+     *
+     * @param x the x-coordinate of the node.
+     * @param y the y-coordinate of the node.
+     * @param edgeIndex the index of the edge (0-2).
+     * @return the edge index.
+     */
+    public int getEdgeIndex(int x, int y, int edgeIndex) {
+        return getVertexIndex(x, y) * 3 + edgeIndex;
+    }
+
+    /**
+     * Gets the dense index of the edge leaving a node in any of the six directions.
+     * Nodes only hold the edges in directions 0-2; an edge in direction 3-5 is held by the node at its other end.
+     *
+     * @param x the x-coordinate of the node.
+     * @param y the y-coordinate of the node.
+     * @param hexagonDirectionIndex the direction index (0-5).
+     * @return the edge index (see {@link #getEdgeIndex}).
+     */
+    public int getEdgeIndexInDirection(int x, int y, int hexagonDirectionIndex) {
+        if (hexagonDirectionIndex < 3)
+            return getEdgeIndex(x, y, hexagonDirectionIndex);
+        int[] diff = directionDifferences[y & 1][hexagonDirectionIndex];
+        return getEdgeIndex(x + diff[0], y + diff[1], hexagonDirectionIndex - 3);
+    }
+
+    /**
+     * Gets the dense index of a face. Each node owns two consecutive face indices, the upper face first,
+     * including indices of faces removed by border trimming (see {@link #faceExists}).
+     *
+     * @param x the x-coordinate of the node.
+     * @param y the y-coordinate of the node.
+     * @param pointing true for the upper face (pointy up), false for the lower face (pointy down).
+     * @return the face index.
+     */
+    public int getFaceIndex(int x, int y, boolean pointing) {
+        return getVertexIndex(x, y) * 2 + (pointing == TriangleFace.POINTY_UP ? 0 : 1);
+    }
+
+    /**
+     * Gets the number of vertex indices.
+     *
+     * @return width * height.
+     */
+    public int getVertexCount() {
+        return gridWidth * gridHeight;
+    }
+
+    /**
+     * Gets the number of edge indices, trimmed border edges included.
+     *
+     * @return 3 * width * height.
+     */
+    public int getEdgeCount() {
+        return getVertexCount() * 3;
+    }
+
+    /**
+     * Gets the number of face indices, trimmed border faces included.
+     *
+     * @return 2 * width * height.
+     */
+    public int getFaceCount() {
+        return getVertexCount() * 2;
+    }
+
     /**
      * Gets the width of the grid (number of nodes in the horizontal direction).
      *
@@ -186,8 +442,60 @@ public class TriangleGrid {
 
     //return the two opposite vertex coordinates of an edge
     public static Point[] getOppositeCoordinatesOfEdge(int x, int y, int edgeIndex) {
-        Point a = getVertexCoordinateAtEndOfEdge(x, y, (edgeIndex - 1) % 6);
+        Point a = getVertexCoordinateAtEndOfEdge(x, y, (edgeIndex + 5) % 6);
         Point b = getVertexCoordinateAtEndOfEdge(x, y, (edgeIndex + 1) % 6);
         return new Point[]{a, b};
     }
+
+    /**
+     * Allocation-free equivalent of {@link #getVertexCoordinateAtEndOfEdge}.
+     *
+     * @param x the x-coordinate of the node.
+     * @param y the y-coordinate of the node.
+     * @param hexagonDirectionIndex the direction index (0-5).
+     * @return the packed coordinate of the neighbouring vertex (see {@link PackedCoordinate}).
+     */
+    public static long getPackedVertexAtEndOfEdge(int x, int y, int hexagonDirectionIndex) {
+        int[] diff = directionDifferences[y & 1][hexagonDirectionIndex];
+        return PackedCoordinate.pack(x + diff[0], y + diff[1]);
+    }
+
+    /**
+     * Allocation-free equivalent of {@link #getVertexCoordinateAtEndOfEdge} taking a packed coordinate.
+     *
+     * @param packed the packed coordinate of the node.
+     * @param hexagonDirectionIndex the direction index (0-5).
+     * @return the packed coordinate of the neighbouring vertex.
+     */
+    public static long getPackedVertexAtEndOfEdge(long packed, int hexagonDirectionIndex) {
+        return getPackedVertexAtEndOfEdge(PackedCoordinate.x(packed), PackedCoordinate.y(packed), hexagonDirectionIndex);
+    }
+
+    /**
+     * Writes the packed coordinates of the six neighbouring vertices, in direction order, into a caller supplied buffer.
+     * Neighbours outside the grid are included; use {@link #vertexExists} to filter them.
+     *
+     * @param x the x-coordinate of the node.
+     * @param y the y-coordinate of the node.
+     * @param out buffer receiving at least six packed coordinates.
+     */
+    public static void getPackedNeighbours(int x, int y, long[] out) {
+        int[][] diffs = directionDifferences[y & 1];
+        for (int direction = 0; direction < 6; direction++) {
+            out[direction] = PackedCoordinate.pack(x + diffs[direction][0], y + diffs[direction][1]);
+        }
+    }
+
+    /**
+     * Allocation-free equivalent of {@link #getOppositeCoordinatesOfEdge}.
+     *
+     * @param x the x-coordinate of the node.
+     * @param y the y-coordinate of the node.
+     * @param edgeIndex the direction index of the edge (0-5).
+     * @param out buffer receiving the two packed opposite vertex coordinates at index 0 and 1.
+     */
+    public static void getPackedOppositeCoordinatesOfEdge(int x, int y, int edgeIndex, long[] out) {
+        out[0] = getPackedVertexAtEndOfEdge(x, y, (edgeIndex + 5) % 6);
+        out[1] = getPackedVertexAtEndOfEdge(x, y, (edgeIndex + 1) % 6);
+    }
 }
@@ -18,4 +18,20 @@ public class TriangleGridNode {
         edges[1] = new Edge();
         edges[2] = new Edge();
     }
+
+    /**
+     * Creates a node of views that carry the coordinate (x, y), as built on demand by compact grids.
+     *
+     * @param x the x-coordinate of the node.
+     * @param y the y-coordinate of the node.
+     */
+    public TriangleGridNode(int x, int y){
+        vertex = new VertexView(x, y);
+        faceUp = new TriangleFaceView(x, y, TriangleFace.POINTY_UP);
+        faceDown = new TriangleFaceView(x, y, TriangleFace.POINTY_DOWN);
+        edges = new Edge[3];
+        edges[0] = new EdgeView(x, y, 0);
+        edges[1] = new EdgeView(x, y, 1);
+        edges[2] = new EdgeView(x, y, 2);
+    }
 }
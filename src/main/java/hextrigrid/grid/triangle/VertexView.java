@@ -0,0 +1,35 @@
+package hextrigrid.grid.triangle;
+
+import hextrigrid.grid.Vertex;
+
+/**
+ * A vertex created on demand by a compact grid, identified by the triangle coordinate it sits on.
+ * Views of the same vertex are equal.
+ */
+public final class VertexView extends Vertex {
+    public final int x;
+    public final int y;
+
+    public VertexView(int x, int y) {
+        this.x = x;
+        this.y = y;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o)
+            return true;
+        if (!(o instanceof VertexView))
+            return false;
+        VertexView vertex = (VertexView) o;
+        return x == vertex.x && y == vertex.y;
+    }
+
+    /**
+     * Distinct for every vertex of grids up to 65536 in each direction.
+     */
+    @Override
+    public int hashCode() {
+        return (x << 16) ^ y;
+    }
+}
@@ -0,0 +1,476 @@
+package hextrigrid.grid.visibility;
+
+import hextrigrid.grid.PackedCoordinate;
+import hextrigrid.grid.composite.CompositeGrid;
+import hextrigrid.grid.metrics.GridCounter;
+import hextrigrid.grid.metrics.GridMetrics;
+import hextrigrid.grid.triangle.TriangleCoordinate;
+import hextrigrid.grid.triangle.TriangleGrid;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Field of view and line of sight over the hexagonal tiles of a {@link CompositeGrid}.
+ * <p>
+ * Sight is blocked by blocking tiles and by blocking edges. A blocking edge is a triangle edge on the border between
+ * two hexagons (resolved through {@link CompositeGrid#getAdjacentTilesOfEdge(int, int, int, long[])}), such as a
+ * wall. Visibility is computed by shadowcasting over hexagon rings around the origin. Every blocking tile and
+ * blocking border casts an angular shadow onto the rings beyond it, and a tile is visible when the direction to its
+ * centre is not in shadow. Blocking tiles themselves are visible, like walls seen from the front.
+ * <p>
+ * Results are cached per (origin, radius) in a small LRU cache, so repeated queries with unchanged blockers cost a
+ * map lookup. Every change to the blockers increments a version and empties the cache. Line of sight queries are
+ * answered from a cached result of the same origin when one covers the target, and are otherwise computed without
+ * being cached. This class is not thread-safe.
+ */
+public class FieldOfView {
+    public static final int DEFAULT_CACHE_SIZE = 64;
+    private static final double HALF_HEIGHT = Math.sqrt(3) / 2;
+    private static final double TWO_PI = 2 * Math.PI;
+    private static final double EPSILON = 1e-9;
+
+    private final CompositeGrid grid;
+    private final BitSet blockingTiles;
+    // Bit tileIndex * 6 + direction is set when the border in that direction blocks sight, on both sides.
+    private final BitSet blockedBorders;
+    private long version;
+
+    private final int cacheSize;
+    private final LinkedHashMap<CacheKey, BitSet> cache;
+
+    // Shadowcasting state: sorted, disjoint angular intervals in [0, 2 pi)
+    private double[] shadowStarts = new double[16];
+    private double[] shadowEnds = new double[16];
+    private int shadowCount;
+    private final long[] adjacent = new long[2];
+    // Result of uncached line of sight queries
+    private final BitSet scratch;
+
+    public FieldOfView(CompositeGrid grid) {
+        this(grid, DEFAULT_CACHE_SIZE);
+    }
+
+    /**
+     * @param grid      The grid.
+     * @param cacheSize The maximum number of cached results.
+     */
+    public FieldOfView(CompositeGrid grid, int cacheSize) {
+        if (cacheSize < 0)
+            throw new IllegalArgumentException("cacheSize must not be negative: " + cacheSize);
+        this.grid = grid;
+        this.blockingTiles = new BitSet(grid.getTileCount());
+        this.blockedBorders = new BitSet(grid.getTileCount() * 6);
+        this.scratch = new BitSet(grid.getTileCount());
+        this.cacheSize = cacheSize;
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<CacheKey, BitSet> eldest) {
+                return size() > FieldOfView.this.cacheSize;
+            }
+        };
+    }
+
+    public CompositeGrid getGrid() {
+        return grid;
+    }
+
+    /**
+     * Gets the blocker version, incremented by every change to the blockers.
+     *
+     * @return The version.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    public boolean isTileBlocking(int x, int y) {
+        return grid.containsHexagonTile(x, y) && blockingTiles.get(grid.getTileIndex(x, y));
+    }
+
+    /**
+     * Sets whether a tile blocks sight. Coordinates outside the grid are ignored.
+     *
+     * @param x        The x-coordinate of the tile.
+     * @param y        The y-coordinate of the tile.
+     * @param blocking true if the tile blocks sight.
+     */
+    public void setTileBlocking(int x, int y, boolean blocking) {
+        if (!grid.containsHexagonTile(x, y))
+            return;
+        int index = grid.getTileIndex(x, y);
+        if (blockingTiles.get(index) != blocking) {
+            blockingTiles.set(index, blocking);
+            blockersChanged();
+        }
+    }
+
+    /**
+     * Checks whether the border of a tile in a direction blocks sight.
+     *
+     * @param x         The x-coordinate of the tile.
+     * @param y         The y-coordinate of the tile.
+     * @param direction The direction index (0-5, see {@link CompositeGrid#hexagonDirectionDifferences}).
+     * @return true if the border blocks sight.
+     */
+    public boolean isBorderBlocking(int x, int y, int direction) {
+        return grid.containsHexagonTile(x, y) && blockedBorders.get(grid.getTileIndex(x, y) * 6 + direction);
+    }
+
+    /**
+     * Sets whether a triangle edge blocks sight. Only edges on the border between two hexagons can block;
+     * edges inside a hexagon are rejected.
+     *
+     * @param x         The x-coordinate of the triangle edge.
+     * @param y         The y-coordinate of the triangle edge.
+     * @param edgeIndex The index of the edge (0-2).
+     * @param blocking  true if the edge blocks sight.
+     * @return true if the edge lies on a hexagon border, false if it was ignored.
+     */
+    public boolean setEdgeBlocking(int x, int y, int edgeIndex, boolean blocking) {
+        if (grid.getAdjacentTilesOfEdge(x, y, edgeIndex, adjacent) != 2)
+            return false;
+        int ax = PackedCoordinate.x(adjacent[0]);
+        int ay = PackedCoordinate.y(adjacent[0]);
+        int bx = PackedCoordinate.x(adjacent[1]);
+        int by = PackedCoordinate.y(adjacent[1]);
+        for (int direction = 0; direction < 6; direction++) {
+            if (CompositeGrid.getPackedAdjacentTile(ax, ay, direction) == adjacent[1]) {
+                boolean changed = setBorderBlocking(ax, ay, direction, blocking);
+                changed |= setBorderBlocking(bx, by, (direction + 3) % 6, blocking);
+                if (changed)
+                    blockersChanged();
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean setBorderBlocking(int x, int y, int direction, boolean blocking) {
+        if (!grid.containsHexagonTile(x, y))
+            return false;
+        int bit = grid.getTileIndex(x, y) * 6 + direction;
+        if (blockedBorders.get(bit) == blocking)
+            return false;
+        blockedBorders.set(bit, blocking);
+        return true;
+    }
+
+    /**
+     * Removes every blocker.
+     */
+    public void clearBlockers() {
+        blockingTiles.clear();
+        blockedBorders.clear();
+        blockersChanged();
+    }
+
+    /**
+     * Records a change to the blockers, discarding cached results.
+     */
+    private void blockersChanged() {
+        version++;
+        cache.clear();
+    }
+
+    /**
+     * Gets the tiles visible from a tile, including the origin itself.
+     *
+     * @param x      The x-coordinate of the origin tile.
+     * @param y      The y-coordinate of the origin tile.
+     * @param radius The maximum distance in tiles.
+     * @return A new set of the visible tiles, indexed by {@link CompositeGrid#getTileIndex}; empty if the origin
+     *         lies outside the grid.
+     */
+    public BitSet getVisibleTiles(int x, int y, int radius) {
+        BitSet visible = new BitSet(grid.getTileCount());
+        getVisibleTiles(x, y, radius, visible);
+        return visible;
+    }
+
+    /**
+     * Copies the tiles visible from a tile into a caller supplied set, which is cleared first.
+     *
+     * @param x      The x-coordinate of the origin tile.
+     * @param y      The y-coordinate of the origin tile.
+     * @param radius The maximum distance in tiles.
+     * @param out    The set receiving the visible tile indices.
+     */
+    public void getVisibleTiles(int x, int y, int radius, BitSet out) {
+        out.clear();
+        if (grid.containsHexagonTile(x, y))
+            out.or(getCachedVisibleTiles(x, y, radius));
+    }
+
+    /**
+     * Looks up or computes the visible tiles of an origin inside the grid. The result is shared with the cache.
+     */
+    private BitSet getCachedVisibleTiles(int x, int y, int radius) {
+        CacheKey key = new CacheKey(grid.getTileIndex(x, y), radius);
+        BitSet visible = cache.get(key);
+        if (visible == null) {
+            GridMetrics.increment(GridCounter.FIELD_OF_VIEW_CACHE_MISSES);
+            visible = new BitSet(grid.getTileCount());
+            computeVisibleTiles(x, y, radius, visible);
+            if (cacheSize > 0)
+                cache.put(key, visible);
+        } else {
+            GridMetrics.increment(GridCounter.FIELD_OF_VIEW_CACHE_HITS);
+        }
+        return visible;
+    }
+
+    /**
+     * Checks whether one tile can see another.
+     *
+     * @param fromX The x-coordinate of the viewing tile.
+     * @param fromY The y-coordinate of the viewing tile.
+     * @param toX   The x-coordinate of the target tile.
+     * @param toY   The y-coordinate of the target tile.
+     * @return true if the target is visible from the viewing tile.
+     */
+    public boolean hasLineOfSight(int fromX, int fromY, int toX, int toY) {
+        if (!grid.containsHexagonTile(fromX, fromY) || !grid.containsHexagonTile(toX, toY))
+            return false;
+        int origin = grid.getTileIndex(fromX, fromY);
+        int target = grid.getTileIndex(toX, toY);
+        int distance = distance(fromX, fromY, toX, toY);
+
+        // Rings are decided before they cast shadows, so any result reaching the target's ring agrees on it
+        for (Map.Entry<CacheKey, BitSet> entry : cache.entrySet()) {
+            CacheKey key = entry.getKey();
+            if (key.origin == origin && key.radius >= distance) {
+                GridMetrics.increment(GridCounter.FIELD_OF_VIEW_CACHE_HITS);
+                return entry.getValue().get(target);
+            }
+        }
+        scratch.clear();
+        computeVisibleTiles(fromX, fromY, distance, scratch);
+        return scratch.get(target);
+    }
+
+    /**
+     * Gets the distance between two tiles in steps between adjacent tiles.
+     */
+    public static int distance(int ax, int ay, int bx, int by) {
+        int aq = ax;
+        int ar = ay - (ax - (ax & 1)) / 2;
+        int bq = bx;
+        int br = by - (bx - (bx & 1)) / 2;
+        int dq = aq - bq;
+        int dr = ar - br;
+        return (Math.abs(dq) + Math.abs(dr) + Math.abs(dq + dr)) / 2;
+    }
+
+    private void computeVisibleTiles(int originX, int originY, int radius, BitSet visible) {
+        if (!grid.containsHexagonTile(originX, originY))
+            return;
+        visible.set(grid.getTileIndex(originX, originY));
+        shadowCount = 0;
+        long centre = TriangleCoordinate.getPackedHexagonCentre(originX, originY);
+        double originPixelX = pixelX(PackedCoordinate.x(centre), PackedCoordinate.y(centre));
+        double originPixelY = pixelY(PackedCoordinate.y(centre));
+
+        castBorderShadows(originX, originY, originPixelX, originPixelY);
+        for (int ring = 1; ring <= radius; ring++) {
+            // Decide visibility for the whole ring before it casts shadows onto the rings beyond it
+            long start = walk(PackedCoordinate.pack(originX, originY), 4, ring);
+            long tile = start;
+            for (int side = 0; side < 6; side++) {
+                for (int step = 0; step < ring; step++) {
+                    int x = PackedCoordinate.x(tile);
+                    int y = PackedCoordinate.y(tile);
+                    if (grid.containsHexagonTile(x, y)) {
+                        long tileCentre = TriangleCoordinate.getPackedHexagonCentre(x, y);
+                        double angle = angle(pixelX(PackedCoordinate.x(tileCentre), PackedCoordinate.y(tileCentre)) - originPixelX,
+                                             pixelY(PackedCoordinate.y(tileCentre)) - originPixelY);
+                        if (!isInShadow(angle))
+                            visible.set(grid.getTileIndex(x, y));
+                    }
+                    tile = walk(tile, side, 1);
+                }
+            }
+            if (ring == radius)
+                break;
+            tile = start;
+            for (int side = 0; side < 6; side++) {
+                for (int step = 0; step < ring; step++) {
+                    int x = PackedCoordinate.x(tile);
+                    int y = PackedCoordinate.y(tile);
+                    if (grid.containsHexagonTile(x, y)) {
+                        if (blockingTiles.get(grid.getTileIndex(x, y)))
+                            castTileShadow(x, y, originPixelX, originPixelY);
+                        else
+                            castBorderShadows(x, y, originPixelX, originPixelY);
+                    }
+                    tile = walk(tile, side, 1);
+                }
+            }
+        }
+    }
+
+    private static long walk(long tile, int direction, int steps) {
+        for (int i = 0; i < steps; i++) {
+            tile = CompositeGrid.getPackedAdjacentTile(PackedCoordinate.x(tile), PackedCoordinate.y(tile), direction);
+        }
+        return tile;
+    }
+
+    /** Casts the shadow of a blocking tile, spanning its six corners */
+    private void castTileShadow(int x, int y, double originPixelX, double originPixelY) {
+        long centre = TriangleCoordinate.getPackedHexagonCentre(x, y);
+        int cx = PackedCoordinate.x(centre);
+        int cy = PackedCoordinate.y(centre);
+        double centreAngle = angle(pixelX(cx, cy) - originPixelX, pixelY(cy) - originPixelY);
+        double from = 0;
+        double to = 0;
+        for (int corner = 0; corner < 6; corner++) {
+            double offset = relativeAngle(cornerAngle(cx, cy, corner, originPixelX, originPixelY), centreAngle);
+            from = Math.min(from, offset);
+            to = Math.max(to, offset);
+        }
+        addShadow(centreAngle + from, centreAngle + to);
+    }
+
+    /** Casts the shadows of the blocking borders of a tile */
+    private void castBorderShadows(int x, int y, double originPixelX, double originPixelY) {
+        int index = grid.getTileIndex(x, y) * 6;
+        int next = blockedBorders.nextSetBit(index);
+        if (next < 0 || next >= index + 6)
+            return;
+        long centre = TriangleCoordinate.getPackedHexagonCentre(x, y);
+        int cx = PackedCoordinate.x(centre);
+        int cy = PackedCoordinate.y(centre);
+        for (int direction = 0; direction < 6; direction++) {
+            if (!blockedBorders.get(index + direction))
+                continue;
+            // The border in direction d runs between corners d and d + 1
+            double a = cornerAngle(cx, cy, direction, originPixelX, originPixelY);
+            double b = cornerAngle(cx, cy, (direction + 1) % 6, originPixelX, originPixelY);
+            double span = relativeAngle(b, a);
+            if (span >= 0)
+                addShadow(a, a + span);
+            else
+                addShadow(b, b - span);
+        }
+    }
+
+    private static double cornerAngle(int cx, int cy, int corner, double originPixelX, double originPixelY) {
+        int[] diff = TriangleGrid.directionDifferences[cy & 1][corner];
+        int x = cx + diff[0];
+        int y = cy + diff[1];
+        return angle(pixelX(x, y) - originPixelX, pixelY(y) - originPixelY);
+    }
+
+    private static double pixelX(int x, int y) {
+        return x - ((y & 1) == 1 ? 0.5 : 0);
+    }
+
+    private static double pixelY(int y) {
+        return y * HALF_HEIGHT;
+    }
+
+    /** Angle of a direction in [0, 2 pi) */
+    private static double angle(double dx, double dy) {
+        double angle = Math.atan2(dy, dx);
+        return angle < 0 ? angle + TWO_PI : angle;
+    }
+
+    /** Signed difference a - b in (-pi, pi] */
+    private static double relativeAngle(double a, double b) {
+        double difference = a - b;
+        if (difference > Math.PI)
+            difference -= TWO_PI;
+        else if (difference <= -Math.PI)
+            difference += TWO_PI;
+        return difference;
+    }
+
+    private void addShadow(double from, double to) {
+        if (from < 0) {
+            addInterval(from + TWO_PI, TWO_PI);
+            addInterval(0, to);
+        } else if (to > TWO_PI) {
+            addInterval(from, TWO_PI);
+            addInterval(0, to - TWO_PI);
+        } else {
+            addInterval(from, to);
+        }
+    }
+
+    /** Inserts an interval, merging it with the intervals it overlaps */
+    private void addInterval(double from, double to) {
+        int first = 0;
+        while (first < shadowCount && shadowEnds[first] < from) {
+            first++;
+        }
+        int last = first;
+        while (last < shadowCount && shadowStarts[last] <= to) {
+            from = Math.min(from, shadowStarts[last]);
+            to = Math.max(to, shadowEnds[last]);
+            last++;
+        }
+        int removed = last - first;
+        if (removed == 0) {
+            if (shadowCount == shadowStarts.length) {
+                shadowStarts = Arrays.copyOf(shadowStarts, shadowCount * 2);
+                shadowEnds = Arrays.copyOf(shadowEnds, shadowCount * 2);
+            }
+            System.arraycopy(shadowStarts, first, shadowStarts, first + 1, shadowCount - first);
+            System.arraycopy(shadowEnds, first, shadowEnds, first + 1, shadowCount - first);
+            shadowCount++;
+        } else if (removed > 1) {
+            System.arraycopy(shadowStarts, last, shadowStarts, first + 1, shadowCount - last);
+            System.arraycopy(shadowEnds, last, shadowEnds, first + 1, shadowCount - last);
+            shadowCount -= removed - 1;
+        }
+        shadowStarts[first] = from;
+        shadowEnds[first] = to;
+    }
+
+    /** Checks whether a direction lies strictly inside a shadow, which may wrap around 0 */
+    private boolean isInShadow(double angle) {
+        double from = angle - EPSILON;
+        double to = angle + EPSILON;
+        if (from < 0)
+            return isCovered(from + TWO_PI, TWO_PI) && isCovered(0, to);
+        if (to > TWO_PI)
+            return isCovered(from, TWO_PI) && isCovered(0, to - TWO_PI);
+        return isCovered(from, to);
+    }
+
+    private boolean isCovered(double from, double to) {
+        for (int i = 0; i < shadowCount && shadowStarts[i] <= from; i++) {
+            if (shadowEnds[i] >= to)
+                return true;
+        }
+        return false;
+    }
+
+    private static final class CacheKey {
+        private final int origin;
+        private final int radius;
+
+        CacheKey(int origin, int radius) {
+            this.origin = origin;
+            this.radius = radius;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o)
+                return true;
+            if (!(o instanceof CacheKey))
+                return false;
+            CacheKey other = (CacheKey) o;
+            return origin == other.origin && radius == other.radius;
+        }
+
+        @Override
+        public int hashCode() {
+            return origin * 31 + radius;
+        }
+    }
+}